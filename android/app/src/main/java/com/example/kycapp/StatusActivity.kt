@@ -6,8 +6,13 @@ import android.os.Looper
 import androidx.appcompat.app.AppCompatActivity
 import androidx.lifecycle.lifecycleScope
 import com.example.kycapp.data.api.ApiClient
+import com.example.kycapp.data.model.KycStatusResponse
 import com.example.kycapp.databinding.ActivityStatusBinding
+import com.google.gson.Gson
 import kotlinx.coroutines.launch
+import okhttp3.Response
+import okhttp3.sse.EventSource
+import okhttp3.sse.EventSourceListener
 
 class StatusActivity : AppCompatActivity() {
     
@@ -15,6 +20,8 @@ class StatusActivity : AppCompatActivity() {
     private var kycId: String? = null
     private val handler = Handler(Looper.getMainLooper())
     private var statusCheckRunnable: Runnable? = null
+    private var statusStream: EventSource? = null
+    private val gson = Gson()
     
     override fun onCreate(savedInstanceState: Bundle?) {
         super.onCreate(savedInstanceState)
@@ -24,7 +31,7 @@ class StatusActivity : AppCompatActivity() {
         kycId = intent.getStringExtra("kycId")
         
         setupViews()
-        startPolling()
+        startStreaming()
     }
     
     private fun setupViews() {
@@ -37,6 +44,27 @@ class StatusActivity : AppCompatActivity() {
         }
     }
     
+    // 优先通过服务端推送(SSE)接收状态变化，连接失败时退回到轮询
+    private fun startStreaming() {
+        val id = kycId ?: return
+        statusStream = ApiClient.openStatusStream(id, object : EventSourceListener() {
+            override fun onEvent(eventSource: EventSource, id: String?, type: String?, data: String) {
+                if (type == "status") {
+                    val statusData = gson.fromJson(data, KycStatusResponse::class.java)
+                    runOnUiThread { updateStatusUI(statusData) }
+                }
+            }
+            
+            override fun onFailure(eventSource: EventSource, t: Throwable?, response: Response?) {
+                runOnUiThread {
+                    if (!isFinishing && statusCheckRunnable == null) {
+                        startPolling()
+                    }
+                }
+            }
+        })
+    }
+    
     private fun startPolling() {
         statusCheckRunnable = Runnable {
             checkStatus()
@@ -125,6 +153,7 @@ class StatusActivity : AppCompatActivity() {
     
     override fun onDestroy() {
         super.onDestroy()
+        statusStream?.cancel()
         stopPolling()
     }
 }
\ No newline at end of file
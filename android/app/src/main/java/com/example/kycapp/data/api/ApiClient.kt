@@ -1,7 +1,11 @@
 package com.example.kycapp.data.api
 
 import okhttp3.OkHttpClient
+import okhttp3.Request
 import okhttp3.logging.HttpLoggingInterceptor
+import okhttp3.sse.EventSource
+import okhttp3.sse.EventSourceListener
+import okhttp3.sse.EventSources
 import retrofit2.Retrofit
 import retrofit2.converter.gson.GsonConverterFactory
 import java.util.concurrent.TimeUnit
@@ -29,4 +33,18 @@ object ApiClient {
         .build()
     
     val kycApiService: KycApiService = retrofit.create(KycApiService::class.java)
-}
\ No newline at end of file
+    
+    // 状态推送使用单独的客户端：日志拦截器会缓冲整个响应体，长连接需要更长的读超时（服务端每15秒发送心跳）
+    private val streamClient = OkHttpClient.Builder()
+        .connectTimeout(30, TimeUnit.SECONDS)
+        .readTimeout(60, TimeUnit.SECONDS)
+        .build()
+    
+    fun openStatusStream(kycId: String, listener: EventSourceListener): EventSource {
+        val request = Request.Builder()
+            .url("${BASE_URL}api/kyc/$kycId/events")
+            .header("Accept", "text/event-stream")
+            .build()
+        return EventSources.createFactory(streamClient).newEventSource(request, listener)
+    }
+}
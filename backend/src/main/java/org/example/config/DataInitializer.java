@@ -8,6 +8,8 @@ import org.springframework.stereotype.Component;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 
 @Component
 public class DataInitializer implements CommandLineRunner {
@@ -15,17 +17,34 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private WorkflowConfigRepository workflowConfigRepository;
 
+    private static final String DEFAULT_WORKFLOW = "default_kyc";
+    private static final String DEFAULT_VERSION = "1.2";
+    private static final List<String> PREVIOUS_DEFAULT_VERSIONS = Arrays.asList("1.0", "1.1");
+
     @Override
     public void run(String... args) throws Exception {
         if (workflowConfigRepository.count() == 0) {
             initializeDefaultWorkflow();
+        } else {
+            upgradeDefaultWorkflow();
+        }
+    }
+
+    private void upgradeDefaultWorkflow() {
+        Optional<WorkflowConfig> active = workflowConfigRepository.findByWorkflowNameAndIsActive(DEFAULT_WORKFLOW, true);
+        if (active.isPresent() && PREVIOUS_DEFAULT_VERSIONS.contains(active.get().getVersion())) {
+            WorkflowConfig previous = active.get();
+            previous.setIsActive(false);
+            workflowConfigRepository.save(previous);
+            initializeDefaultWorkflow();
+            System.out.println("Default KYC workflow upgraded to version " + DEFAULT_VERSION);
         }
     }
 
     private void initializeDefaultWorkflow() {
         WorkflowConfig defaultWorkflow = new WorkflowConfig();
-        defaultWorkflow.setWorkflowName("default_kyc");
-        defaultWorkflow.setVersion("1.0");
+        defaultWorkflow.setWorkflowName(DEFAULT_WORKFLOW);
+        defaultWorkflow.setVersion(DEFAULT_VERSION);
         defaultWorkflow.setIsActive(true);
 
         WorkflowConfig.NodeConfig idVerificationNode = new WorkflowConfig.NodeConfig();
@@ -34,7 +53,8 @@ public class DataInitializer implements CommandLineRunner {
         idVerificationNode.setNodeType("ID_VERIFICATION");
         idVerificationNode.setServiceEndpoint("https://api.thirdparty.com/id-verification");
         idVerificationNode.setRequiredInputs(Collections.singletonList("idCardImage"));
-        idVerificationNode.setNextNodes(Collections.singletonList("face_verification"));
+        // No node consumes another node's result, so all three start as soon as their images are uploaded
+        idVerificationNode.setNextNodes(Collections.emptyList());
         idVerificationNode.setTimeout(30000);
 
         WorkflowConfig.NodeConfig faceVerificationNode = new WorkflowConfig.NodeConfig();
@@ -46,7 +66,16 @@ public class DataInitializer implements CommandLineRunner {
         faceVerificationNode.setNextNodes(Collections.emptyList());
         faceVerificationNode.setTimeout(30000);
 
-        defaultWorkflow.setNodes(Arrays.asList(idVerificationNode, faceVerificationNode));
+        WorkflowConfig.NodeConfig deepfakeDetectionNode = new WorkflowConfig.NodeConfig();
+        deepfakeDetectionNode.setNodeId("deepfake_detection");
+        deepfakeDetectionNode.setNodeName("Deepfake Detection");
+        deepfakeDetectionNode.setNodeType("DEEPFAKE_DETECTION");
+        deepfakeDetectionNode.setServiceEndpoint("https://api.thirdparty.com/deepfake-detection");
+        deepfakeDetectionNode.setRequiredInputs(Collections.singletonList("faceImage"));
+        deepfakeDetectionNode.setNextNodes(Collections.emptyList());
+        deepfakeDetectionNode.setTimeout(30000);
+
+        defaultWorkflow.setNodes(Arrays.asList(idVerificationNode, faceVerificationNode, deepfakeDetectionNode));
 
         workflowConfigRepository.save(defaultWorkflow);
         System.out.println("Default KYC workflow initialized");
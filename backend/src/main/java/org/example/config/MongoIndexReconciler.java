@@ -0,0 +1,169 @@
+package org.example.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.example.model.KycProcess;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Reconciles the indexes of every mapped collection with the ones the code
+ * declares at startup. Declared indexes come from the entity annotations plus
+ * the partial indexes below, which the annotations cannot express. Missing
+ * indexes are logged and created, and indexes that exist but are not declared
+ * are logged. Declared indexes that $indexStats reports as unused for longer
+ * than the grace period are also logged, so they can be reviewed and dropped.
+ */
+@Component
+@Slf4j
+public class MongoIndexReconciler implements CommandLineRunner {
+
+    private static final String ID_INDEX = "_id_";
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean createMissing;
+    private final Duration unusedGracePeriod;
+
+    public MongoIndexReconciler(MongoTemplate mongoTemplate,
+                                @Value("${kyc.indexes.create-missing:true}") boolean createMissing,
+                                @Value("${kyc.indexes.unused-grace-period:7d}") Duration unusedGracePeriod) {
+        this.mongoTemplate = mongoTemplate;
+        this.createMissing = createMissing;
+        this.unusedGracePeriod = unusedGracePeriod;
+    }
+
+    @Override
+    public void run(String... args) {
+        declaredIndexes().forEach((collection, indexes) -> {
+            try {
+                reconcile(collection, indexes);
+            } catch (RuntimeException e) {
+                log.warn("Failed to reconcile indexes of {}", collection, e);
+            }
+        });
+    }
+
+    /**
+     * Partial indexes for kyc_processes, which the annotations cannot express.
+     * Only processes that have dispatched a task carry workflowNodes.taskId, so
+     * the callback lookup index skips the rest.
+     */
+    private static List<IndexDefinition> partialIndexes() {
+        List<IndexDefinition> indexes = new ArrayList<>();
+        indexes.add(new Index().named("workflowNodes_taskId")
+                .on("workflowNodes.taskId", Sort.Direction.ASC)
+                .partial(PartialIndexFilter.of(Criteria.where("workflowNodes.taskId").exists(true))));
+        return indexes;
+    }
+
+    private Map<String, List<IndexDefinition>> declaredIndexes() {
+        Map<String, List<IndexDefinition>> declared = new LinkedHashMap<>();
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        for (MongoPersistentEntity<?> entity : mongoTemplate.getConverter().getMappingContext().getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class)) {
+                continue;
+            }
+            List<IndexDefinition> indexes = declared.computeIfAbsent(entity.getCollection(), c -> new ArrayList<>());
+            resolver.resolveIndexFor(entity.getTypeInformation()).forEach(indexes::add);
+        }
+        declared.computeIfAbsent(mongoTemplate.getCollectionName(KycProcess.class), c -> new ArrayList<>())
+                .addAll(partialIndexes());
+        return declared;
+    }
+
+    private void reconcile(String collection, List<IndexDefinition> declared) {
+        Map<String, Document> existing = new HashMap<>();
+        for (Document index : mongoTemplate.getCollection(collection).listIndexes()) {
+            existing.put(index.getString("name"), index);
+        }
+
+        List<String> declaredNames = new ArrayList<>();
+        for (IndexDefinition definition : declared) {
+            String name = definition.getIndexOptions().getString("name");
+            declaredNames.add(name);
+            Document current = existing.get(name);
+            if (current != null) {
+                if (!keyOf(current.get("key", Document.class)).equals(keyOf(definition.getIndexKeys()))) {
+                    log.warn("Index {}.{} has keys {} but {} are declared", collection, name,
+                            current.get("key"), definition.getIndexKeys());
+                }
+                continue;
+            }
+
+            String sameKeys = existing.values().stream()
+                    .filter(index -> keyOf(index.get("key", Document.class)).equals(keyOf(definition.getIndexKeys())))
+                    .map(index -> index.getString("name"))
+                    .findFirst()
+                    .orElse(null);
+            if (sameKeys != null) {
+                log.warn("Index {}.{} is missing; index {} has the same keys", collection, name, sameKeys);
+            } else if (createMissing) {
+                log.warn("Index {}.{} is missing, creating it", collection, name);
+                mongoTemplate.indexOps(collection).ensureIndex(definition);
+            } else {
+                log.warn("Index {}.{} is missing", collection, name);
+            }
+        }
+
+        existing.keySet().stream()
+                .filter(name -> !ID_INDEX.equals(name) && !declaredNames.contains(name))
+                .forEach(name -> log.warn("Index {}.{} exists but is not declared", collection, name));
+
+        logUnusedIndexes(collection, declaredNames);
+    }
+
+    private void logUnusedIndexes(String collection, List<String> declaredNames) {
+        Instant cutoff = Instant.now().minus(unusedGracePeriod);
+        List<Document> pipeline = new ArrayList<>();
+        pipeline.add(new Document("$indexStats", new Document()));
+        try {
+            for (Document stats : mongoTemplate.getCollection(collection).aggregate(pipeline)) {
+                String name = stats.getString("name");
+                Document accesses = stats.get("accesses", Document.class);
+                if (!declaredNames.contains(name) || accesses == null) {
+                    continue;
+                }
+                long ops = ((Number) accesses.get("ops")).longValue();
+                Date since = accesses.getDate("since");
+                if (ops == 0 && since != null && since.toInstant().isBefore(cutoff)) {
+                    log.warn("Index {}.{} has not been used since {}", collection, name, since);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.debug("Index usage statistics unavailable for {}: {}", collection, e.getMessage());
+        }
+    }
+
+    /**
+     * Normalizes a key pattern, as the server may report directions as doubles.
+     */
+    private static String keyOf(Document key) {
+        if (key == null) {
+            return "";
+        }
+        return key.entrySet().stream()
+                .map(e -> e.getKey() + ":" + (e.getValue() instanceof Number
+                        ? String.valueOf(((Number) e.getValue()).intValue()) : e.getValue()))
+                .collect(Collectors.joining(","));
+    }
+}
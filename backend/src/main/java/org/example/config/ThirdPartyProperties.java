@@ -0,0 +1,86 @@
+package org.example.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.Valid;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "third-party")
+public class ThirdPartyProperties {
+
+    @Valid
+    private Map<String, ServiceProperties> services = new LinkedHashMap<>();
+    private CallbackProperties callback = new CallbackProperties();
+    private ResilienceProperties resilience = new ResilienceProperties();
+    private BatchingProperties batching = new BatchingProperties();
+    private String imageBaseUrl = "http://localhost:8080/api/admin/image/";
+
+    public ServiceProperties getService(String vendor) {
+        ServiceProperties service = services.get(vendor);
+        if (service == null || service.getUrl() == null) {
+            throw new IllegalStateException("Missing configuration: third-party.services." + vendor + ".url");
+        }
+        return service;
+    }
+
+    @Data
+    public static class ServiceProperties {
+        private String url;
+        // 批量接口地址，默认为 url + "/batch"
+        private String batchUrl;
+        // 响应超时，未带单位时按毫秒解析
+        private Duration timeout = Duration.ofSeconds(30);
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private int maxConnections = 50;
+        private int pendingAcquireMaxCount = 1000;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(10);
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        private boolean keepAlive = true;
+        private boolean http2 = false;
+        @Valid
+        private BulkheadProperties bulkhead = new BulkheadProperties();
+    }
+
+    @Data
+    public static class BulkheadProperties {
+        private int maxInFlight = 20;
+        private int queueCapacity = 1000;
+        // 每秒放行的调用数，必须大于 0
+        @DecimalMin(value = "0", inclusive = false)
+        private double rate = 50;
+        @Min(1)
+        private int burst = 20;
+    }
+
+    @Data
+    public static class BatchingProperties {
+        private boolean enabled = false;
+        private int maxBatchSize = 50;
+        private Duration maxWait = Duration.ofMillis(20);
+        private int maxConcurrentBatches = 4;
+    }
+
+    @Data
+    public static class CallbackProperties {
+        private String baseUrl = "http://localhost:8080/api/callback";
+    }
+
+    @Data
+    public static class ResilienceProperties {
+        private int maxRetries = 3;
+        private Duration initialBackoff = Duration.ofMillis(200);
+        private Duration maxBackoff = Duration.ofSeconds(5);
+        private int failureThreshold = 5;
+        private Duration openDuration = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.config;
+
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One {@link WebClient} per configured vendor, each on its own Reactor Netty
+ * connection pool so a slow vendor cannot exhaust connections needed by the
+ * others. Pool gauges are published under reactor.netty.connection.provider.*
+ * tagged with the vendor name.
+ */
+@Component
+@EnableConfigurationProperties(ThirdPartyProperties.class)
+@Slf4j
+public class VendorWebClients implements DisposableBean {
+
+    private final Map<String, WebClient> clients = new HashMap<>();
+    private final Map<String, ConnectionProvider> connectionProviders = new HashMap<>();
+
+    public VendorWebClients(ThirdPartyProperties properties) {
+        properties.getServices().forEach((vendor, service) -> {
+            ConnectionProvider provider = ConnectionProvider.builder(vendor)
+                    .maxConnections(service.getMaxConnections())
+                    .pendingAcquireMaxCount(service.getPendingAcquireMaxCount())
+                    .pendingAcquireTimeout(service.getPendingAcquireTimeout())
+                    .maxIdleTime(service.getMaxIdleTime())
+                    .maxLifeTime(service.getMaxLifeTime())
+                    .metrics(true)
+                    .build();
+
+            HttpClient httpClient = HttpClient.create(provider)
+                    .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) service.getConnectTimeout().toMillis())
+                    .option(ChannelOption.SO_KEEPALIVE, service.isKeepAlive())
+                    .keepAlive(service.isKeepAlive())
+                    .responseTimeout(service.getTimeout())
+                    .metrics(true, uri -> vendor);
+            if (service.isHttp2()) {
+                boolean secure = service.getUrl() != null && service.getUrl().startsWith("https");
+                httpClient = secure
+                        ? httpClient.secure().protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+                        : httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+            }
+
+            connectionProviders.put(vendor, provider);
+            clients.put(vendor, WebClient.builder()
+                    .clientConnector(new ReactorClientHttpConnector(httpClient))
+                    .build());
+            log.info("Configured vendor client {}: maxConnections={}, http2={}",
+                    vendor, service.getMaxConnections(), service.isHttp2());
+        });
+    }
+
+    public WebClient get(String vendor) {
+        WebClient client = clients.get(vendor);
+        if (client == null) {
+            throw new IllegalStateException("No client configured for vendor: " + vendor);
+        }
+        return client;
+    }
+
+    @Override
+    public void destroy() {
+        connectionProviders.values().forEach(ConnectionProvider::dispose);
+    }
+}
@@ -37,4 +37,16 @@ public class CallbackController {
                     .body(ApiResponse.error(e.getMessage(), "CALLBACK_ERROR"));
         }
     }
+
+    @PostMapping("/deepfake-detection")
+    public ResponseEntity<ApiResponse<String>> deepfakeDetectionCallback(
+            @RequestBody ThirdPartyCallbackRequest request) {
+        try {
+            callbackService.handleDeepfakeDetectionCallback(request);
+            return ResponseEntity.ok(ApiResponse.success("Callback processed successfully"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), "CALLBACK_ERROR"));
+        }
+    }
 }
\ No newline at end of file
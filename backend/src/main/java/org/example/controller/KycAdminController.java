@@ -2,21 +2,30 @@ package org.example.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.example.dto.ApiResponse;
+import org.example.dto.CursorPage;
+import org.example.dto.KycRollupPoint;
+import org.example.dto.KycStatsResponse;
+import org.example.dto.KycSummary;
 import org.example.model.KycProcess;
+import org.example.model.KycRollupBucket;
+import org.example.service.ImageDerivativeService;
+import org.example.service.ImageDownloadService;
 import org.example.service.KycAdminService;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.example.service.KycRollupService;
+import org.example.service.KycStatsService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -24,14 +33,62 @@ import java.nio.file.Paths;
 public class KycAdminController {
 
     private final KycAdminService kycAdminService;
+    private final ImageDerivativeService imageDerivativeService;
+    private final ImageDownloadService imageDownloadService;
+    private final KycStatsService kycStatsService;
+    private final KycRollupService kycRollupService;
 
     @GetMapping("/kyc")
-    public ResponseEntity<ApiResponse<Page<KycProcess>>> getKycList(
+    public ResponseEntity<ApiResponse<Page<KycSummary>>> getKycList(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "ALL") String status) {
         try {
-            Page<KycProcess> result = kycAdminService.getKycList(PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdTime")), status);
+            Page<KycSummary> result = kycAdminService.getKycList(PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdTime")), status);
+            return ResponseEntity.ok(ApiResponse.success(result));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), "QUERY_ERROR"));
+        }
+    }
+
+    @GetMapping("/kyc/cursor")
+    public ResponseEntity<ApiResponse<CursorPage<KycSummary>>> getKycListByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "ALL") String status,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        try {
+            CursorPage<KycSummary> result = kycAdminService.getKycListByCursor(
+                    cursor, Math.max(1, Math.min(size, 100)), status, includeTotal);
+            return ResponseEntity.ok(ApiResponse.success(result));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), "QUERY_ERROR"));
+        }
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<ApiResponse<KycStatsResponse>> getStats() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(kycStatsService.getStats()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), "QUERY_ERROR"));
+        }
+    }
+
+    @GetMapping("/rollups")
+    public ResponseEntity<ApiResponse<List<KycRollupPoint>>> getRollups(
+            @RequestParam(defaultValue = "HOUR") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            KycRollupBucket.Granularity bucketGranularity = KycRollupBucket.Granularity.valueOf(granularity.toUpperCase());
+            LocalDateTime end = to != null ? to : LocalDateTime.now();
+            LocalDateTime start = from != null ? from
+                    : bucketGranularity == KycRollupBucket.Granularity.HOUR ? end.minusHours(24) : end.minusDays(30);
+            List<KycRollupPoint> result = kycRollupService.getRollups(bucketGranularity, start, end);
             return ResponseEntity.ok(ApiResponse.success(result));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -62,36 +119,15 @@ public class KycAdminController {
     }
 
     @GetMapping("/image/{filename}")
-    public ResponseEntity<Resource> getImage(@PathVariable String filename) {
-        try {
-            Path filePath = Paths.get("uploads").resolve(filename).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-            
-            if (resource.exists() && resource.isReadable()) {
-                String contentType = getContentType(filename);
-                return ResponseEntity.ok()
-                        .header(HttpHeaders.CONTENT_TYPE, contentType)
-                        .body(resource);
-            } else {
-                return ResponseEntity.notFound().build();
-            }
-        } catch (Exception e) {
-            return ResponseEntity.notFound().build();
-        }
-    }
-
-    private String getContentType(String filename) {
-        String extension = filename.substring(filename.lastIndexOf('.') + 1).toLowerCase();
-        switch (extension) {
-            case "jpg":
-            case "jpeg":
-                return MediaType.IMAGE_JPEG_VALUE;
-            case "png":
-                return MediaType.IMAGE_PNG_VALUE;
-            case "pdf":
-                return MediaType.APPLICATION_PDF_VALUE;
-            default:
-                return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    public void getImage(@PathVariable String filename,
+                         @RequestParam(defaultValue = "original") String size,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImageDerivativeService.Size imageSize = ImageDerivativeService.Size.fromParam(size);
+        if (imageSize == null) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Unsupported image size: " + size);
+            return;
         }
+        ImageDerivativeService.Resolved resolved = imageDerivativeService.resolve(filename, imageSize);
+        imageDownloadService.serve(resolved.getKey(), !resolved.isFallback(), request, response);
     }
-}
\ No newline at end of file
+}
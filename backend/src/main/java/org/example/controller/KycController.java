@@ -1,22 +1,40 @@
 package org.example.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.example.dto.ApiResponse;
+import org.example.dto.KycBatchStatusResult;
 import org.example.dto.KycUploadResponse;
 import org.example.dto.KycStatusResponse;
 import org.example.dto.CreateKycSessionRequest;
 import org.example.dto.CreateKycSessionResponse;
+import org.example.service.KycBulkSessionService;
 import org.example.service.KycService;
+import org.example.service.KycStatusStreamService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/kyc")
 @RequiredArgsConstructor
 public class KycController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final KycService kycService;
+    private final KycBulkSessionService kycBulkSessionService;
+    private final KycStatusStreamService kycStatusStreamService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/session")
     public ResponseEntity<ApiResponse<CreateKycSessionResponse>> createKycSession(
@@ -30,6 +48,29 @@ public class KycController {
         }
     }
 
+    /**
+     * Creates many sessions at once and streams one NDJSON line per request
+     * item, in request order, as each chunk is written.
+     */
+    @PostMapping("/sessions/bulk")
+    public ResponseEntity<?> createKycSessions(@RequestBody List<CreateKycSessionRequest> requests) {
+        try {
+            kycBulkSessionService.validate(requests);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), "SESSION_CREATE_ERROR"));
+        }
+
+        StreamingResponseBody body = out -> kycBulkSessionService.createSessions(requests, results -> {
+            try {
+                writeLines(out, results);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
     @PostMapping("/{kycId}/upload-id-card")
     public ResponseEntity<ApiResponse<KycUploadResponse>> uploadIdCard(
             @PathVariable String kycId,
@@ -56,6 +97,36 @@ public class KycController {
         }
     }
 
+    @PostMapping("/{kycId}/upload-id-card/stream")
+    public ResponseEntity<ApiResponse<KycUploadResponse>> uploadIdCardStream(
+            @PathVariable String kycId,
+            @RequestParam(value = "fileName", defaultValue = "id-card") String fileName,
+            HttpServletRequest request) {
+        try {
+            KycUploadResponse response = kycService.uploadIdCard(
+                    kycId, request.getInputStream(), request.getContentLengthLong(), fileName);
+            return ResponseEntity.ok(ApiResponse.success(response));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), "UPLOAD_ERROR"));
+        }
+    }
+
+    @PostMapping("/{kycId}/upload-face/stream")
+    public ResponseEntity<ApiResponse<KycUploadResponse>> uploadFaceStream(
+            @PathVariable String kycId,
+            @RequestParam(value = "fileName", defaultValue = "face") String fileName,
+            HttpServletRequest request) {
+        try {
+            KycUploadResponse response = kycService.uploadFace(
+                    kycId, request.getInputStream(), request.getContentLengthLong(), fileName);
+            return ResponseEntity.ok(ApiResponse.success(response));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), "UPLOAD_ERROR"));
+        }
+    }
+
     @GetMapping("/{kycId}/status")
     public ResponseEntity<ApiResponse<KycStatusResponse>> getKycStatus(@PathVariable String kycId) {
         try {
@@ -66,4 +137,44 @@ public class KycController {
                     .body(ApiResponse.error(e.getMessage(), "STATUS_ERROR"));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Resolves the status of many processes with one query and returns one
+     * NDJSON line per requested id, in request order.
+     */
+    @PostMapping("/status/batch")
+    public ResponseEntity<?> getKycStatuses(@RequestBody List<String> kycIds) {
+        try {
+            List<KycBatchStatusResult> results = kycService.getKycStatuses(kycIds);
+            StreamingResponseBody body = out -> writeLines(out, results);
+            return ResponseEntity.ok().contentType(NDJSON).body(body);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage(), "STATUS_ERROR"));
+        }
+    }
+
+    @GetMapping("/{kycId}/events")
+    public SseEmitter streamKycStatus(@PathVariable String kycId) {
+        try {
+            return kycStatusStreamService.subscribe(kycId);
+        } catch (Exception e) {
+            SseEmitter emitter = new SseEmitter();
+            try {
+                emitter.send(SseEmitter.event().name("error").data(ApiResponse.error(e.getMessage(), "STATUS_ERROR")));
+                emitter.complete();
+            } catch (IOException sendError) {
+                emitter.completeWithError(sendError);
+            }
+            return emitter;
+        }
+    }
+
+    private void writeLines(OutputStream out, List<?> items) throws IOException {
+        for (Object item : items) {
+            out.write(objectMapper.writeValueAsBytes(item));
+            out.write('\n');
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+/**
+ * Outcome of one item of a bulk session request, identified by its position
+ * in the request. Either kycId or error is set, or both when the write failed
+ * without telling which documents were stored; the kycId can then be looked up
+ * to find out.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkSessionResult {
+    private int index;
+    private String userId;
+    private String kycId;
+    private String status;
+    private String error;
+}
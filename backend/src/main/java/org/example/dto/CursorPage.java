@@ -0,0 +1,17 @@
+package org.example.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of a cursor-paginated listing. Pass nextCursor back to get the
+ * following page; it is null on the last page.
+ */
+@Data
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+    private Long totalElements;
+}
@@ -0,0 +1,36 @@
+package org.example.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+/**
+ * One line of a batch status lookup: the status fields of a known process,
+ * or an error for an id that could not be resolved.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class KycBatchStatusResult {
+    private String kycId;
+    private String status;
+    private Integer progress;
+    private String currentNode;
+    private Object result;
+    private String error;
+
+    public static KycBatchStatusResult of(KycStatusResponse response) {
+        KycBatchStatusResult result = new KycBatchStatusResult();
+        result.setKycId(response.getKycId());
+        result.setStatus(response.getStatus());
+        result.setProgress(response.getProgress());
+        result.setCurrentNode(response.getCurrentNode());
+        result.setResult(response.getResult());
+        return result;
+    }
+
+    public static KycBatchStatusResult error(String kycId, String error) {
+        KycBatchStatusResult result = new KycBatchStatusResult();
+        result.setKycId(kycId);
+        result.setError(error);
+        return result;
+    }
+}
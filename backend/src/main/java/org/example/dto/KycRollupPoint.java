@@ -0,0 +1,19 @@
+package org.example.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class KycRollupPoint {
+    private LocalDateTime bucketStart;
+    private long created;
+    private long completed;
+    private long failed;
+    private Long averageLatencyMs;
+    /**
+     * Upper bound of the latency histogram bin holding the 95th percentile,
+     * not an exact value.
+     */
+    private Long p95LatencyMs;
+}
@@ -0,0 +1,12 @@
+package org.example.dto;
+
+import lombok.Data;
+
+@Data
+public class KycStatsResponse {
+    private long total;
+    private long pending;
+    private long inProgress;
+    private long completed;
+    private long failed;
+}
@@ -0,0 +1,21 @@
+package org.example.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the admin KYC list, loaded through a field projection instead of
+ * the full process document.
+ */
+@Data
+public class KycSummary {
+    private String id;
+    private String userId;
+    private String status;
+    private LocalDateTime createdTime;
+    private LocalDateTime updatedTime;
+    private String idCardFilePath;
+    private String faceFilePath;
+    private Boolean passed;
+}
@@ -2,6 +2,9 @@ package org.example.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -9,15 +12,29 @@ import java.util.List;
 
 @Data
 @Document(collection = "kyc_processes")
+@CompoundIndexes({
+        @CompoundIndex(name = "createdTime_id", def = "{'createdTime': -1, '_id': -1}"),
+        @CompoundIndex(name = "status_createdTime_id", def = "{'status': 1, 'createdTime': -1, '_id': -1}"),
+        @CompoundIndex(name = "userId_createdTime", def = "{'userId': 1, 'createdTime': -1}")
+})
 public class KycProcess {
     @Id
     private String id;
+    @Version
+    private Long version;
     private String userId;
     private KycStatus status;
     private LocalDateTime createdTime;
     private LocalDateTime updatedTime;
+    /**
+     * When the process last reached a final status. Kept while a re-run is in
+     * progress so rollups count each session's outcome once.
+     */
+    private LocalDateTime completedTime;
     private IdCardInfo idCardInfo;
     private FaceInfo faceInfo;
+    private String workflowName;
+    private String workflowVersion;
     private List<WorkflowNode> workflowNodes;
     private FinalResult finalResult;
 
@@ -25,6 +42,10 @@ public class KycProcess {
     public static class IdCardInfo {
         private String fileName;
         private String filePath;
+        private String normalizedFilePath;
+        private String contentHash;
+        private String contentType;
+        private Long fileSize;
         private LocalDateTime uploadTime;
         private VerificationStatus verificationStatus;
         private Object verificationResult;
@@ -34,6 +55,10 @@ public class KycProcess {
     public static class FaceInfo {
         private String fileName;
         private String filePath;
+        private String normalizedFilePath;
+        private String contentHash;
+        private String contentType;
+        private Long fileSize;
         private LocalDateTime uploadTime;
         private VerificationStatus verificationStatus;
         private Object verificationResult;
@@ -49,6 +74,7 @@ public class KycProcess {
         private LocalDateTime endTime;
         private Object result;
         private String taskId;
+        private Integer attempts;
     }
 
     @Data
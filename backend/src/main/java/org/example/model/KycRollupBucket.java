@@ -0,0 +1,40 @@
+package org.example.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Pre-aggregated KYC throughput and latency for one hour or one day. Sessions
+ * are counted in the bucket of their createdTime, completions and failures in
+ * the bucket of their completedTime. Latency (createdTime to completion) is kept
+ * as a sum/count pair for the average and as a fixed-bin histogram for
+ * percentiles; see {@code KycRollupService} for the bin bounds.
+ */
+@Data
+@Document(collection = "kyc_rollups")
+@CompoundIndex(name = "granularity_bucketStart", def = "{'granularity': 1, 'bucketStart': 1}")
+public class KycRollupBucket {
+    @Id
+    private String id;
+    private Granularity granularity;
+    private LocalDateTime bucketStart;
+    private long created;
+    private long completed;
+    private long failed;
+    private long latencySumMs;
+    private long latencyCount;
+    private Map<String, Long> latencyHistogram;
+
+    public enum Granularity {
+        HOUR, DAY
+    }
+
+    public static String idOf(Granularity granularity, LocalDateTime bucketStart) {
+        return granularity + ":" + bucketStart;
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Number of KYC processes in each status, kept as a single document so the
+ * dashboard reads it in one lookup and transitions adjust it with one atomic $inc.
+ */
+@Data
+@Document(collection = "kyc_stats")
+public class KycStatusCounts {
+    public static final String ID = "status_counts";
+
+    @Id
+    private String id;
+    private Map<String, Long> counts;
+    private LocalDateTime rebuiltTime;
+}
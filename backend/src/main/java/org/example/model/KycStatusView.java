@@ -0,0 +1,24 @@
+package org.example.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Compact, precomputed status of a KYC process, kept in step with kyc_processes
+ * by the workflow engine so status reads never load the full process document.
+ */
+@Data
+@Document(collection = "kyc_status")
+public class KycStatusView {
+    @Id
+    private String kycId;
+    private KycProcess.KycStatus status;
+    private Integer progress;
+    private String currentNode;
+    private KycProcess.FinalResult finalResult;
+    private Long processVersion;
+    private LocalDateTime updatedTime;
+}
@@ -0,0 +1,19 @@
+package org.example.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@Document(collection = "stored_images")
+public class StoredImage {
+    @Id
+    private String contentHash;
+    private String fileName;
+    private String contentType;
+    private long size;
+    private long refCount;
+    private LocalDateTime createdTime;
+}
@@ -0,0 +1,25 @@
+package org.example.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Maps a vendor taskId to the node that issued it. Routes are removed when the
+ * node finishes or the KYC is deleted; the TTL index clears any left behind by
+ * callbacks that never arrive.
+ */
+@Data
+@Document(collection = "task_routes")
+public class TaskRoute {
+    @Id
+    private String taskId;
+    @Indexed
+    private String kycId;
+    private String nodeId;
+    @Indexed(name = "createdTime_ttl", expireAfter = "7d")
+    private LocalDateTime createdTime;
+}
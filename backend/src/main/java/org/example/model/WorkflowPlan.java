@@ -0,0 +1,124 @@
+package org.example.model;
+
+import lombok.Value;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, pre-validated form of a {@link WorkflowConfig}. Compiled once per
+ * workflowName/version and shared by every KYC process that runs it.
+ * <p>
+ * The nodes form a DAG: an edge runs from a node to each entry of its
+ * nextNodes, and a node becomes runnable once all of its predecessors have
+ * completed and its requiredInputs are available.
+ */
+@Value
+public class WorkflowPlan {
+    String workflowName;
+    String version;
+    List<Node> nodes;
+    Map<String, Node> nodesById;
+    Map<String, List<String>> predecessors;
+
+    @Value
+    public static class Node {
+        String nodeId;
+        String nodeName;
+        KycProcess.NodeType nodeType;
+        String serviceEndpoint;
+        List<String> requiredInputs;
+        List<String> nextNodes;
+        Integer timeout;
+    }
+
+    public Node getNode(String nodeId) {
+        return nodesById.get(nodeId);
+    }
+
+    public List<String> getPredecessors(String nodeId) {
+        return predecessors.getOrDefault(nodeId, Collections.emptyList());
+    }
+
+    public static WorkflowPlan compile(WorkflowConfig config) {
+        List<WorkflowConfig.NodeConfig> nodeConfigs = config.getNodes() != null
+                ? config.getNodes() : Collections.emptyList();
+
+        Map<String, Node> nodesById = new LinkedHashMap<>();
+        for (WorkflowConfig.NodeConfig nodeConfig : nodeConfigs) {
+            Node node = new Node(
+                    nodeConfig.getNodeId(),
+                    nodeConfig.getNodeName(),
+                    KycProcess.NodeType.valueOf(nodeConfig.getNodeType()),
+                    nodeConfig.getServiceEndpoint(),
+                    immutableCopy(nodeConfig.getRequiredInputs()),
+                    immutableCopy(nodeConfig.getNextNodes()),
+                    nodeConfig.getTimeout());
+            if (nodesById.put(node.getNodeId(), node) != null) {
+                throw new IllegalArgumentException("Duplicate nodeId in workflow "
+                        + config.getWorkflowName() + ": " + node.getNodeId());
+            }
+        }
+
+        Map<String, List<String>> predecessors = new HashMap<>();
+        for (Node node : nodesById.values()) {
+            for (String nextNodeId : node.getNextNodes()) {
+                if (!nodesById.containsKey(nextNodeId)) {
+                    throw new IllegalArgumentException("Unknown next node in workflow "
+                            + config.getWorkflowName() + ": " + node.getNodeId() + " -> " + nextNodeId);
+                }
+                predecessors.computeIfAbsent(nextNodeId, key -> new ArrayList<>()).add(node.getNodeId());
+            }
+        }
+        predecessors.replaceAll((nodeId, ids) -> Collections.unmodifiableList(ids));
+        checkAcyclic(config.getWorkflowName(), nodesById, predecessors);
+
+        return new WorkflowPlan(
+                config.getWorkflowName(),
+                config.getVersion(),
+                Collections.unmodifiableList(new ArrayList<>(nodesById.values())),
+                Collections.unmodifiableMap(nodesById),
+                Collections.unmodifiableMap(predecessors));
+    }
+
+    private static void checkAcyclic(String workflowName, Map<String, Node> nodesById,
+                                     Map<String, List<String>> predecessors) {
+        Map<String, Integer> inDegree = new HashMap<>();
+        Deque<String> ready = new ArrayDeque<>();
+        for (String nodeId : nodesById.keySet()) {
+            int degree = predecessors.getOrDefault(nodeId, Collections.emptyList()).size();
+            inDegree.put(nodeId, degree);
+            if (degree == 0) {
+                ready.add(nodeId);
+            }
+        }
+
+        int visited = 0;
+        while (!ready.isEmpty()) {
+            Node node = nodesById.get(ready.poll());
+            visited++;
+            for (String nextNodeId : node.getNextNodes()) {
+                if (inDegree.merge(nextNodeId, -1, Integer::sum) == 0) {
+                    ready.add(nextNodeId);
+                }
+            }
+        }
+
+        if (visited != nodesById.size()) {
+            throw new IllegalArgumentException("Workflow " + workflowName + " contains a cycle");
+        }
+    }
+
+    private static List<String> immutableCopy(List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(new ArrayList<>(values));
+    }
+}
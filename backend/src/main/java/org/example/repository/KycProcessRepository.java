@@ -11,7 +11,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface KycProcessRepository extends MongoRepository<KycProcess, String> {
+public interface KycProcessRepository extends MongoRepository<KycProcess, String>, KycProcessRepositoryCustom {
     
     List<KycProcess> findByUserId(String userId);
     
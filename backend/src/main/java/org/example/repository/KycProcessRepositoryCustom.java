@@ -0,0 +1,115 @@
+package org.example.repository;
+
+import org.example.model.KycProcess;
+import org.example.model.KycRollupBucket;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Field-level updates for {@link KycProcess}. Each method issues a single
+ * atomic update against the affected fields instead of rewriting the whole
+ * document, and is guarded by the state the caller expects to transition from.
+ * All writes bump the document version so they participate in optimistic
+ * locking with full-document saves.
+ */
+public interface KycProcessRepositoryCustom {
+
+    /**
+     * Loads the process, applies the mutation and saves it with a version check,
+     * re-reading and re-applying the mutation when a concurrent write wins.
+     */
+    KycProcess updateWithRetry(String kycId, Consumer<KycProcess> mutation);
+
+    /**
+     * Loads the process without node results and verification payloads, for
+     * callers that only need statuses.
+     */
+    KycProcess findStatusFields(String kycId);
+
+    /**
+     * Batch form of {@link #findStatusFields}, loading all processes with one $in query.
+     */
+    List<KycProcess> findStatusFieldsIn(Collection<String> kycIds);
+
+    /**
+     * Loads one page of processes with only the fields shown in the admin list.
+     *
+     * @param status the status to filter on, or null for all
+     */
+    Page<KycProcess> findSummaries(KycProcess.KycStatus status, Pageable pageable);
+
+    /**
+     * Loads up to limit processes, newest first, that sort after the given
+     * (createdTime, id) seek key, with the same fields as {@link #findSummaries}.
+     * Served from the (status,) createdTime, _id index, so the cost does not
+     * depend on how deep the page is.
+     *
+     * @param status          the status to filter on, or null for all
+     * @param afterCreatedTime createdTime of the last row of the previous page, or null for the first page
+     * @param afterId          id of the last row of the previous page
+     */
+    List<KycProcess> findSummariesAfter(KycProcess.KycStatus status, LocalDateTime afterCreatedTime,
+                                        String afterId, int limit);
+
+    /**
+     * @return the status the process had before, or null if it does not exist
+     */
+    KycProcess.KycStatus initializeWorkflow(String kycId, String workflowName, String workflowVersion,
+                                            List<KycProcess.WorkflowNode> nodes);
+
+    /**
+     * @return the status the process had before, or null if it does not exist
+     */
+    KycProcess.KycStatus updateStatus(String kycId, KycProcess.KycStatus status);
+
+    boolean markNodeStarted(String kycId, String nodeId, String taskId, LocalDateTime startTime);
+
+    /**
+     * Records the outcome of an in-progress node and returns the updated process,
+     * or {@code null} when the node is no longer waiting for this taskId.
+     */
+    KycProcess markNodeFinished(String kycId, String nodeId, String taskId,
+                                KycProcess.NodeStatus status, Object result);
+
+    /**
+     * Re-issues an in-progress node under a new taskId, returning the updated
+     * process, or {@code null} when the node is no longer waiting on expiredTaskId.
+     */
+    KycProcess restartNode(String kycId, String nodeId, String expiredTaskId, String taskId, LocalDateTime startTime);
+
+    /**
+     * Finishes an in-progress process, stamping completedTime. Returns the
+     * status, createdTime and completedTime the process had before, so a
+     * non-null completedTime marks a re-run that had already finished once, or
+     * {@code null} when it was no longer in progress.
+     */
+    KycProcess completeWorkflow(String kycId, KycProcess.KycStatus status,
+                                KycProcess.FinalResult finalResult, LocalDateTime completedTime);
+
+    /**
+     * Counts processes per status with a single $group aggregation.
+     */
+    Map<KycProcess.KycStatus, Long> countByStatusGrouped();
+
+    /**
+     * Recomputes hourly rollup buckets from the processes collection: sessions
+     * per createdTime hour, completions and failures per completedTime hour
+     * (updatedTime for processes finished before completedTime was recorded),
+     * and the latency histogram of completions over the given bin bounds.
+     */
+    List<KycRollupBucket> aggregateHourlyRollups(long[] latencyBoundsMs);
+
+    /**
+     * Inserts the processes with one unordered bulk write, so a failing
+     * document does not stop the others. Ids must be assigned beforehand.
+     *
+     * @return error messages keyed by the position of each failed process in the list
+     */
+    Map<Integer, String> insertUnordered(List<KycProcess> processes);
+}
@@ -0,0 +1,374 @@
+package org.example.repository;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.example.model.KycProcess;
+import org.example.model.KycRollupBucket;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+@Slf4j
+public class KycProcessRepositoryImpl implements KycProcessRepositoryCustom {
+
+    private static final int MAX_UPDATE_ATTEMPTS = 5;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public KycProcess updateWithRetry(String kycId, Consumer<KycProcess> mutation) {
+        for (int attempt = 1; ; attempt++) {
+            KycProcess process = mongoTemplate.findById(kycId, KycProcess.class);
+            if (process == null) {
+                throw new RuntimeException("KYC process not found: " + kycId);
+            }
+            if (process.getVersion() == null) {
+                initializeVersion(kycId);
+                continue;
+            }
+
+            mutation.accept(process);
+            try {
+                return mongoTemplate.save(process);
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= MAX_UPDATE_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Concurrent update on KYC {}, retrying (attempt {})", kycId, attempt);
+            }
+        }
+    }
+
+    @Override
+    public KycProcess findStatusFields(String kycId) {
+        Query query = Query.query(Criteria.where("id").is(kycId));
+        excludeVerificationResults(query);
+        return mongoTemplate.findOne(query, KycProcess.class);
+    }
+
+    @Override
+    public List<KycProcess> findStatusFieldsIn(Collection<String> kycIds) {
+        Query query = Query.query(Criteria.where("id").in(kycIds));
+        excludeVerificationResults(query);
+        return mongoTemplate.find(query, KycProcess.class);
+    }
+
+    @Override
+    public Page<KycProcess> findSummaries(KycProcess.KycStatus status, Pageable pageable) {
+        Query query = status != null ? Query.query(Criteria.where("status").is(status)) : new Query();
+        Query countQuery = Query.of(query);
+        query.with(pageable);
+        includeSummaryFields(query);
+
+        List<KycProcess> content = mongoTemplate.find(query, KycProcess.class);
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> mongoTemplate.count(countQuery, KycProcess.class));
+    }
+
+    @Override
+    public List<KycProcess> findSummariesAfter(KycProcess.KycStatus status, LocalDateTime afterCreatedTime,
+                                               String afterId, int limit) {
+        Criteria criteria = status != null ? Criteria.where("status").is(status) : new Criteria();
+        if (afterCreatedTime != null) {
+            criteria = criteria.orOperator(
+                    Criteria.where("createdTime").lt(afterCreatedTime),
+                    Criteria.where("createdTime").is(afterCreatedTime).and("id").lt(afterId));
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "createdTime", "id"))
+                .limit(limit);
+        includeSummaryFields(query);
+        return mongoTemplate.find(query, KycProcess.class);
+    }
+
+    private static void includeSummaryFields(Query query) {
+        query.fields()
+                .include("userId")
+                .include("status")
+                .include("createdTime")
+                .include("updatedTime")
+                .include("idCardInfo.filePath")
+                .include("faceInfo.filePath")
+                .include("finalResult.passed");
+    }
+
+    @Override
+    public KycProcess.KycStatus initializeWorkflow(String kycId, String workflowName, String workflowVersion,
+                                                   List<KycProcess.WorkflowNode> nodes) {
+        Query query = Query.query(Criteria.where("id").is(kycId));
+        Update update = new Update()
+                .set("status", KycProcess.KycStatus.IN_PROGRESS)
+                .set("workflowName", workflowName)
+                .set("workflowVersion", workflowVersion)
+                .set("workflowNodes", nodes)
+                .unset("finalResult")
+                .set("updatedTime", LocalDateTime.now())
+                .inc("version", 1);
+        return previousStatus(query, update);
+    }
+
+    @Override
+    public KycProcess.KycStatus updateStatus(String kycId, KycProcess.KycStatus status) {
+        Query query = Query.query(Criteria.where("id").is(kycId));
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .set("status", status)
+                .set("updatedTime", now)
+                .inc("version", 1);
+        if (status == KycProcess.KycStatus.COMPLETED || status == KycProcess.KycStatus.FAILED) {
+            update.set("completedTime", now);
+        }
+        return previousStatus(query, update);
+    }
+
+    @Override
+    public boolean markNodeStarted(String kycId, String nodeId, String taskId, LocalDateTime startTime) {
+        Query query = Query.query(Criteria.where("id").is(kycId)
+                .and("workflowNodes").elemMatch(Criteria.where("nodeId").is(nodeId)
+                        .and("status").is(KycProcess.NodeStatus.PENDING)));
+        Update update = new Update()
+                .set("workflowNodes.$.status", KycProcess.NodeStatus.IN_PROGRESS)
+                .set("workflowNodes.$.startTime", startTime)
+                .set("workflowNodes.$.taskId", taskId)
+                .set("workflowNodes.$.attempts", 1)
+                .set("updatedTime", LocalDateTime.now())
+                .inc("version", 1);
+        return mongoTemplate.updateFirst(query, update, KycProcess.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public KycProcess markNodeFinished(String kycId, String nodeId, String taskId,
+                                       KycProcess.NodeStatus status, Object result) {
+        Query query = Query.query(Criteria.where("id").is(kycId)
+                .and("workflowNodes").elemMatch(Criteria.where("nodeId").is(nodeId)
+                        .and("taskId").is(taskId)
+                        .and("status").is(KycProcess.NodeStatus.IN_PROGRESS)));
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .set("workflowNodes.$.status", status)
+                .set("workflowNodes.$.endTime", now)
+                .set("workflowNodes.$.result", result)
+                .set("updatedTime", now)
+                .inc("version", 1);
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), KycProcess.class);
+    }
+
+    @Override
+    public KycProcess restartNode(String kycId, String nodeId, String expiredTaskId, String taskId,
+                                  LocalDateTime startTime) {
+        Query query = Query.query(Criteria.where("id").is(kycId)
+                .and("workflowNodes").elemMatch(Criteria.where("nodeId").is(nodeId)
+                        .and("taskId").is(expiredTaskId)
+                        .and("status").is(KycProcess.NodeStatus.IN_PROGRESS)));
+        Update update = new Update()
+                .set("workflowNodes.$.startTime", startTime)
+                .set("workflowNodes.$.taskId", taskId)
+                .inc("workflowNodes.$.attempts", 1)
+                .set("updatedTime", LocalDateTime.now())
+                .inc("version", 1);
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), KycProcess.class);
+    }
+
+    @Override
+    public KycProcess completeWorkflow(String kycId, KycProcess.KycStatus status,
+                                       KycProcess.FinalResult finalResult, LocalDateTime completedTime) {
+        Query query = Query.query(Criteria.where("id").is(kycId)
+                .and("status").is(KycProcess.KycStatus.IN_PROGRESS));
+        query.fields().include("status", "createdTime", "completedTime");
+        Update update = new Update()
+                .set("status", status)
+                .set("updatedTime", completedTime)
+                .set("completedTime", completedTime)
+                .inc("version", 1);
+        if (finalResult != null) {
+            update.set("finalResult", finalResult);
+        }
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(false), KycProcess.class);
+    }
+
+    @Override
+    public Map<Integer, String> insertUnordered(List<KycProcess> processes) {
+        Map<Integer, String> failures = new HashMap<>();
+        if (processes.isEmpty()) {
+            return failures;
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, KycProcess.class)
+                    .insert(processes)
+                    .execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                failures.put(error.getIndex(), error.getMessage());
+            }
+        }
+        return failures;
+    }
+
+    @Override
+    public Map<KycProcess.KycStatus, Long> countByStatusGrouped() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.group("status").count().as("count"));
+        Map<KycProcess.KycStatus, Long> counts = new EnumMap<>(KycProcess.KycStatus.class);
+        for (Document row : mongoTemplate.aggregate(aggregation, KycProcess.class, Document.class)) {
+            Object status = row.get("_id");
+            if (status != null) {
+                counts.put(KycProcess.KycStatus.valueOf(status.toString()), ((Number) row.get("count")).longValue());
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public List<KycRollupBucket> aggregateHourlyRollups(long[] latencyBoundsMs) {
+        Map<LocalDateTime, KycRollupBucket> buckets = new TreeMap<>();
+
+        List<Document> created = Arrays.asList(
+                new Document("$match", new Document("createdTime", new Document("$ne", null))),
+                new Document("$group", new Document("_id", hourOf("$createdTime"))
+                        .append("count", new Document("$sum", 1))));
+        for (Document row : processCollection().aggregate(created).allowDiskUse(true)) {
+            hourlyBucket(buckets, row.getString("_id")).setCreated(((Number) row.get("count")).longValue());
+        }
+
+        List<Document> branches = new ArrayList<>();
+        for (int i = 0; i < latencyBoundsMs.length; i++) {
+            branches.add(new Document("case", new Document("$lt", Arrays.asList("$latency", latencyBoundsMs[i])))
+                    .append("then", i));
+        }
+        Document bin = new Document("$cond", Arrays.asList(
+                new Document("$and", Arrays.asList(
+                        new Document("$eq", Arrays.asList("$status", KycProcess.KycStatus.COMPLETED.name())),
+                        new Document("$ne", Arrays.asList("$latency", null)))),
+                new Document("$switch", new Document("branches", branches)
+                        .append("default", latencyBoundsMs.length)),
+                -1));
+        List<Document> finished = Arrays.asList(
+                new Document("$match", new Document("status", new Document("$in", Arrays.asList(
+                        KycProcess.KycStatus.COMPLETED.name(), KycProcess.KycStatus.FAILED.name())))),
+                new Document("$project", new Document("status", 1)
+                        .append("finished", new Document("$ifNull", Arrays.asList("$completedTime", "$updatedTime")))
+                        .append("createdTime", 1)),
+                new Document("$match", new Document("finished", new Document("$ne", null))),
+                new Document("$project", new Document("status", 1)
+                        .append("hour", hourOf("$finished"))
+                        .append("latency", new Document("$subtract", Arrays.asList("$finished", "$createdTime")))),
+                new Document("$project", new Document("status", 1)
+                        .append("hour", 1)
+                        .append("latency", 1)
+                        .append("bin", bin)),
+                new Document("$group", new Document("_id", new Document("hour", "$hour")
+                        .append("status", "$status")
+                        .append("bin", "$bin"))
+                        .append("count", new Document("$sum", 1))
+                        .append("latencySum", new Document("$sum",
+                                new Document("$cond", Arrays.asList(new Document("$gte", Arrays.asList("$bin", 0)),
+                                        "$latency", 0))))));
+        for (Document row : processCollection().aggregate(finished).allowDiskUse(true)) {
+            Document key = row.get("_id", Document.class);
+            KycRollupBucket bucket = hourlyBucket(buckets, key.getString("hour"));
+            long count = ((Number) row.get("count")).longValue();
+            if (KycProcess.KycStatus.FAILED.name().equals(key.getString("status"))) {
+                bucket.setFailed(bucket.getFailed() + count);
+                continue;
+            }
+            bucket.setCompleted(bucket.getCompleted() + count);
+            int binIndex = ((Number) key.get("bin")).intValue();
+            if (binIndex >= 0) {
+                bucket.setLatencyCount(bucket.getLatencyCount() + count);
+                bucket.setLatencySumMs(bucket.getLatencySumMs() + ((Number) row.get("latencySum")).longValue());
+                bucket.getLatencyHistogram().merge(String.valueOf(binIndex), count, Long::sum);
+            }
+        }
+        return new ArrayList<>(buckets.values());
+    }
+
+    private MongoCollection<Document> processCollection() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(KycProcess.class));
+    }
+
+    /**
+     * Truncates a date to the hour in the JVM's zone, which is the zone
+     * LocalDateTime values are converted from when they are stored.
+     */
+    private static Document hourOf(String dateField) {
+        return new Document("$dateToString", new Document("format", "%Y-%m-%dT%H:00:00")
+                .append("date", dateField)
+                .append("timezone", mongoTimezone()));
+    }
+
+    private static String mongoTimezone() {
+        ZoneId zone = ZoneId.systemDefault().normalized();
+        if (zone instanceof ZoneOffset) {
+            return ((ZoneOffset) zone).getTotalSeconds() == 0 ? "+00:00" : zone.getId();
+        }
+        return zone.getId();
+    }
+
+    private static KycRollupBucket hourlyBucket(Map<LocalDateTime, KycRollupBucket> buckets, String hour) {
+        return buckets.computeIfAbsent(LocalDateTime.parse(hour), start -> {
+            KycRollupBucket bucket = new KycRollupBucket();
+            bucket.setId(KycRollupBucket.idOf(KycRollupBucket.Granularity.HOUR, start));
+            bucket.setGranularity(KycRollupBucket.Granularity.HOUR);
+            bucket.setBucketStart(start);
+            bucket.setLatencyHistogram(new HashMap<>());
+            return bucket;
+        });
+    }
+
+    private static void excludeVerificationResults(Query query) {
+        query.fields()
+                .exclude("workflowNodes.result")
+                .exclude("idCardInfo.verificationResult")
+                .exclude("faceInfo.verificationResult");
+    }
+
+    /**
+     * Applies the update and returns the status from before it, so callers can
+     * account for the transition.
+     */
+    private KycProcess.KycStatus previousStatus(Query query, Update update) {
+        query.fields().include("status");
+        KycProcess previous = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(false), KycProcess.class);
+        return previous != null ? previous.getStatus() : null;
+    }
+
+    /**
+     * Documents written before versioning was introduced have no version field,
+     * which Spring Data would treat as a new entity on save.
+     */
+    private void initializeVersion(String kycId) {
+        Query query = Query.query(Criteria.where("id").is(kycId).and("version").exists(false));
+        mongoTemplate.updateFirst(query, Update.update("version", 0L), KycProcess.class);
+    }
+}
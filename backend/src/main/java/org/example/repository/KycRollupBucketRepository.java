@@ -0,0 +1,15 @@
+package org.example.repository;
+
+import org.example.model.KycRollupBucket;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface KycRollupBucketRepository extends MongoRepository<KycRollupBucket, String>, KycRollupBucketRepositoryCustom {
+
+    List<KycRollupBucket> findByGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStartAsc(
+            KycRollupBucket.Granularity granularity, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,15 @@
+package org.example.repository;
+
+import org.example.model.KycRollupBucket;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public interface KycRollupBucketRepositoryCustom {
+
+    /**
+     * Adds the deltas to the given bucket's counters in a single atomic $inc,
+     * creating the bucket if it does not exist yet.
+     */
+    void increment(KycRollupBucket.Granularity granularity, LocalDateTime bucketStart, Map<String, Long> deltas);
+}
@@ -0,0 +1,30 @@
+package org.example.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.model.KycRollupBucket;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class KycRollupBucketRepositoryImpl implements KycRollupBucketRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void increment(KycRollupBucket.Granularity granularity, LocalDateTime bucketStart, Map<String, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Query query = Query.query(Criteria.where("id").is(KycRollupBucket.idOf(granularity, bucketStart)));
+        Update update = new Update()
+                .setOnInsert("granularity", granularity)
+                .setOnInsert("bucketStart", bucketStart);
+        deltas.forEach(update::inc);
+        mongoTemplate.upsert(query, update, KycRollupBucket.class);
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.repository;
+
+import java.util.Map;
+
+public interface KycStatusCountsRepositoryCustom {
+
+    /**
+     * Applies the per-status deltas to the counters in a single atomic $inc,
+     * creating the counters document if it does not exist yet.
+     */
+    void increment(Map<String, Long> deltas);
+
+    /**
+     * Overwrites all counters with freshly computed values.
+     */
+    void replaceCounts(Map<String, Long> counts);
+}
@@ -0,0 +1,39 @@
+package org.example.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.model.KycStatusCounts;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class KycStatusCountsRepositoryImpl implements KycStatusCountsRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void increment(Map<String, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Update update = new Update();
+        deltas.forEach((status, delta) -> update.inc("counts." + status, delta));
+        mongoTemplate.upsert(countsQuery(), update, KycStatusCounts.class);
+    }
+
+    @Override
+    public void replaceCounts(Map<String, Long> counts) {
+        Update update = new Update()
+                .set("counts", counts)
+                .set("rebuiltTime", LocalDateTime.now());
+        mongoTemplate.upsert(countsQuery(), update, KycStatusCounts.class);
+    }
+
+    private static Query countsQuery() {
+        return Query.query(Criteria.where("id").is(KycStatusCounts.ID));
+    }
+}
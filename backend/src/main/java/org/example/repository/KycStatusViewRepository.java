@@ -0,0 +1,9 @@
+package org.example.repository;
+
+import org.example.model.KycStatusView;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface KycStatusViewRepository extends MongoRepository<KycStatusView, String>, KycStatusViewRepositoryCustom {
+}
@@ -0,0 +1,13 @@
+package org.example.repository;
+
+import org.example.model.KycStatusView;
+
+public interface KycStatusViewRepositoryCustom {
+
+    /**
+     * Stores the view unless a view built from a newer process version is already stored.
+     *
+     * @return true if the view was written
+     */
+    boolean saveIfNewer(KycStatusView view);
+}
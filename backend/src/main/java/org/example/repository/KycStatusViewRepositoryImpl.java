@@ -0,0 +1,42 @@
+package org.example.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.model.KycStatusView;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+@RequiredArgsConstructor
+public class KycStatusViewRepositoryImpl implements KycStatusViewRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean saveIfNewer(KycStatusView view) {
+        long version = view.getProcessVersion() != null ? view.getProcessVersion() : 0L;
+        view.setProcessVersion(version);
+        Query query = Query.query(Criteria.where("kycId").is(view.getKycId())
+                .orOperator(Criteria.where("processVersion").lte(version),
+                        Criteria.where("processVersion").exists(false)));
+        Update update = new Update()
+                .set("status", view.getStatus())
+                .set("progress", view.getProgress())
+                .set("currentNode", view.getCurrentNode())
+                .set("finalResult", view.getFinalResult())
+                .set("processVersion", version)
+                .set("updatedTime", view.getUpdatedTime());
+        if (mongoTemplate.updateFirst(query, update, KycStatusView.class).getMatchedCount() > 0) {
+            return true;
+        }
+
+        try {
+            mongoTemplate.insert(view);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // A view from a newer process version is already stored
+            return false;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.repository;
+
+import org.example.model.StoredImage;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StoredImageRepository extends MongoRepository<StoredImage, String>, StoredImageRepositoryCustom {
+}
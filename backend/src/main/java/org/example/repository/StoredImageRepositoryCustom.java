@@ -0,0 +1,25 @@
+package org.example.repository;
+
+import org.example.model.StoredImage;
+
+public interface StoredImageRepositoryCustom {
+
+    /**
+     * Adds a reference to the image, inserting its record on first use.
+     *
+     * @return true if the record was newly created
+     */
+    boolean addReference(StoredImage image);
+
+    /**
+     * Drops one reference and returns the updated record, or null if the image is unknown.
+     */
+    StoredImage removeReference(String contentHash);
+
+    /**
+     * Deletes the image record if nothing references it any more.
+     *
+     * @return true if the record was deleted
+     */
+    boolean deleteIfUnreferenced(String contentHash);
+}
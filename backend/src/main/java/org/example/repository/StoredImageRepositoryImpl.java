@@ -0,0 +1,40 @@
+package org.example.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.example.model.StoredImage;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+@RequiredArgsConstructor
+public class StoredImageRepositoryImpl implements StoredImageRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean addReference(StoredImage image) {
+        Query query = Query.query(Criteria.where("contentHash").is(image.getContentHash()));
+        Update update = new Update()
+                .inc("refCount", 1)
+                .setOnInsert("fileName", image.getFileName())
+                .setOnInsert("contentType", image.getContentType())
+                .setOnInsert("size", image.getSize())
+                .setOnInsert("createdTime", image.getCreatedTime());
+        return mongoTemplate.upsert(query, update, StoredImage.class).getUpsertedId() != null;
+    }
+
+    @Override
+    public StoredImage removeReference(String contentHash) {
+        Query query = Query.query(Criteria.where("contentHash").is(contentHash).and("refCount").gt(0));
+        return mongoTemplate.findAndModify(query, new Update().inc("refCount", -1),
+                FindAndModifyOptions.options().returnNew(true), StoredImage.class);
+    }
+
+    @Override
+    public boolean deleteIfUnreferenced(String contentHash) {
+        Query query = Query.query(Criteria.where("contentHash").is(contentHash).and("refCount").lte(0));
+        return mongoTemplate.remove(query, StoredImage.class).getDeletedCount() > 0;
+    }
+}
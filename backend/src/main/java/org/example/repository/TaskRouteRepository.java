@@ -0,0 +1,11 @@
+package org.example.repository;
+
+import org.example.model.TaskRoute;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TaskRouteRepository extends MongoRepository<TaskRoute, String> {
+
+    long deleteByKycId(String kycId);
+}
@@ -4,6 +4,8 @@ import org.example.model.WorkflowConfig;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +14,6 @@ public interface WorkflowConfigRepository extends MongoRepository<WorkflowConfig
     Optional<WorkflowConfig> findByWorkflowNameAndIsActive(String workflowName, Boolean isActive);
     
     Optional<WorkflowConfig> findByWorkflowNameAndVersion(String workflowName, String version);
+
+    List<WorkflowConfig> findByWorkflowNameIn(Collection<String> workflowNames);
 }
\ No newline at end of file
@@ -0,0 +1,257 @@
+package org.example.service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * ImageIO helpers shared by the image derivative and normalization code.
+ */
+final class ImageCodec {
+
+    private ImageCodec() {
+    }
+
+    /**
+     * Thrown when an image's declared dimensions exceed the pixel limit, before
+     * any pixel data is decoded.
+     */
+    static class ImageTooLargeException extends RuntimeException {
+        ImageTooLargeException(int width, int height, long maxPixels) {
+            super("Image dimensions " + width + "x" + height + " exceed the limit of " + maxPixels + " pixels");
+        }
+    }
+
+    /**
+     * Decodes an image, returning null when ImageIO has no reader for it. The
+     * dimensions are read from the header first and images over maxPixels are
+     * rejected without being decoded. Sources at least twice as large as
+     * targetDimension on their longest side are decoded with subsampling, so
+     * only a fraction of the pixels ever reaches the heap; the result is still
+     * at least targetDimension on its longest side.
+     */
+    static BufferedImage read(InputStream input, long maxPixels, int targetDimension) throws IOException {
+        try (ImageInputStream stream = ImageIO.createImageInputStream(input)) {
+            Iterator<ImageReader> readers = stream != null ? ImageIO.getImageReaders(stream) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new ImageTooLargeException(width, height, maxPixels);
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / Math.max(1, targetDimension));
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scales the image down so neither side exceeds maxDimension, halving in
+     * steps so large reductions keep their quality. The result is always an
+     * opaque RGB image, flattening transparency onto white.
+     */
+    static BufferedImage scaleToFit(BufferedImage source, int maxDimension) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage current = toRgb(source);
+        while (current.getWidth() / 2 >= targetWidth && current.getHeight() / 2 >= targetHeight) {
+            current = resize(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        if (current.getWidth() != targetWidth || current.getHeight() != targetHeight) {
+            current = resize(current, targetWidth, targetHeight);
+        }
+        return current;
+    }
+
+    /**
+     * Reads the EXIF orientation (1-8) from the head of a JPEG file, or 1 when
+     * there is none. Only the first APP1 Exif segment is inspected.
+     */
+    static int readExifOrientation(byte[] head) {
+        ByteBuffer buffer = ByteBuffer.wrap(head);
+        if (head.length < 4 || (head[0] & 0xFF) != 0xFF || (head[1] & 0xFF) != 0xD8) {
+            return 1;
+        }
+        int position = 2;
+        while (position + 4 <= head.length && (head[position] & 0xFF) == 0xFF) {
+            int marker = head[position + 1] & 0xFF;
+            int length = ((head[position + 2] & 0xFF) << 8) | (head[position + 3] & 0xFF);
+            if (marker == 0xDA || length < 2) {
+                return 1;
+            }
+            int segment = position + 4;
+            if (marker == 0xE1 && segment + 14 <= head.length && new String(head, segment, 4,
+                    StandardCharsets.US_ASCII).equals("Exif")) {
+                return readTiffOrientation(buffer, segment + 6, Math.min(head.length, position + 2 + length));
+            }
+            position += 2 + length;
+        }
+        return 1;
+    }
+
+    /**
+     * Rotates and flips the image so it displays upright without its EXIF orientation.
+     */
+    static BufferedImage applyOrientation(BufferedImage image, int orientation) {
+        if (orientation < 2 || orientation > 8) {
+            return image;
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        boolean swap = orientation >= 5;
+        AffineTransform transform = new AffineTransform();
+        switch (orientation) {
+            case 2:
+                transform.scale(-1, 1);
+                transform.translate(-width, 0);
+                break;
+            case 3:
+                transform.translate(width, height);
+                transform.rotate(Math.PI);
+                break;
+            case 4:
+                transform.scale(1, -1);
+                transform.translate(0, -height);
+                break;
+            case 5:
+                transform.rotate(-Math.PI / 2);
+                transform.scale(-1, 1);
+                break;
+            case 6:
+                transform.translate(height, 0);
+                transform.rotate(Math.PI / 2);
+                break;
+            case 7:
+                transform.scale(-1, 1);
+                transform.translate(-height, 0);
+                transform.translate(0, width);
+                transform.rotate(3 * Math.PI / 2);
+                break;
+            default:
+                transform.translate(0, width);
+                transform.rotate(3 * Math.PI / 2);
+                break;
+        }
+
+        BufferedImage source = toRgb(image);
+        BufferedImage oriented = new BufferedImage(swap ? height : width, swap ? width : height,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = oriented.createGraphics();
+        try {
+            g.drawImage(source, transform, null);
+        } finally {
+            g.dispose();
+        }
+        return oriented;
+    }
+
+    static void writeJpeg(BufferedImage image, float quality, Path target) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) {
+            throw new IOException("No JPEG writer available");
+        }
+        ImageWriter writer = writers.next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(Files.newOutputStream(target))) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static int readTiffOrientation(ByteBuffer buffer, int tiffStart, int limit) {
+        if (tiffStart + 8 > limit) {
+            return 1;
+        }
+        short byteOrder = buffer.getShort(tiffStart);
+        if (byteOrder == 0x4949) {
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+        } else if (byteOrder == 0x4D4D) {
+            buffer.order(ByteOrder.BIG_ENDIAN);
+        } else {
+            return 1;
+        }
+        int ifd = tiffStart + buffer.getInt(tiffStart + 4);
+        if (ifd < tiffStart || ifd + 2 > limit) {
+            return 1;
+        }
+        int entries = buffer.getShort(ifd) & 0xFFFF;
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > limit) {
+                break;
+            }
+            if ((buffer.getShort(entry) & 0xFFFF) == 0x0112) {
+                return buffer.getShort(entry + 8) & 0xFFFF;
+            }
+        }
+        return 1;
+    }
+
+    private static BufferedImage toRgb(BufferedImage source) {
+        if (source.getType() == BufferedImage.TYPE_INT_RGB) {
+            return source;
+        }
+        BufferedImage rgb = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, rgb.getWidth(), rgb.getHeight());
+            g.drawImage(source, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    private static BufferedImage resize(BufferedImage source, int width, int height) {
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = resized.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return resized;
+    }
+}
@@ -0,0 +1,186 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Generates downscaled JPEG thumbnails and previews of uploaded images on the
+ * bounded derivativeExecutor pool and stores them next to the original as
+ * {@code <hash>_thumb.jpg} and {@code <hash>_preview.jpg}. Until a derivative
+ * exists the original is served in its place, and a request for a missing
+ * derivative queues its generation, so older uploads are backfilled lazily.
+ */
+@Service
+@Slf4j
+public class ImageDerivativeService {
+
+    public enum Size {
+        THUMB, PREVIEW, ORIGINAL;
+
+        public static Size fromParam(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        String suffix() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final ImageStorage imageStorage;
+    private final Executor executor;
+    private final MeterRegistry meterRegistry;
+    private final Timer generationTimer;
+    private final int thumbSize;
+    private final int previewSize;
+    private final float quality;
+    private final long maxPixels;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    public ImageDerivativeService(ImageStorage imageStorage,
+                                  @Qualifier("derivativeExecutor") Executor executor,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${file.derivatives.thumb-size:200}") int thumbSize,
+                                  @Value("${file.derivatives.preview-size:1024}") int previewSize,
+                                  @Value("${file.derivatives.quality:0.8}") float quality,
+                                  @Value("${file.upload.max-pixels:50000000}") long maxPixels) {
+        this.imageStorage = imageStorage;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.generationTimer = Timer.builder("image.derivatives.generation").register(meterRegistry);
+        this.thumbSize = thumbSize;
+        this.previewSize = previewSize;
+        this.quality = quality;
+        this.maxPixels = maxPixels;
+        meterRegistry.gauge("image.derivatives.pending", pending, Set::size);
+    }
+
+    /**
+     * Queues thumbnail and preview generation for a stored image. Never blocks:
+     * when the pool is saturated the work is dropped and redone on first request.
+     */
+    public void generateAsync(String key) {
+        if (!isDerivable(key) || !pending.add(key)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generationTimer.record(() -> generate(key));
+                } finally {
+                    pending.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(key);
+            meterRegistry.counter("image.derivatives.rejected").increment();
+            log.debug("Derivative pool saturated, skipping {}", key);
+        }
+    }
+
+    /**
+     * The storage key to serve for a requested size. {@code fallback} is set
+     * when the original stands in for a derivative that is still being generated.
+     */
+    @lombok.Value
+    public static class Resolved {
+        String key;
+        boolean fallback;
+    }
+
+    /**
+     * Returns the storage key to serve for the requested size, falling back to
+     * the original while the derivative is not available.
+     */
+    public Resolved resolve(String key, Size size) {
+        if (size == Size.ORIGINAL || !ImageStorage.isValidKey(key) || !isDerivable(key)) {
+            return new Resolved(key, false);
+        }
+        String derivativeKey = derivativeKey(key, size);
+        if (imageStorage.exists(derivativeKey)) {
+            return new Resolved(derivativeKey, false);
+        }
+        generateAsync(key);
+        return new Resolved(key, true);
+    }
+
+    public List<String> derivativeKeys(String key) {
+        return Arrays.stream(new Size[]{Size.THUMB, Size.PREVIEW})
+                .map(size -> derivativeKey(key, size))
+                .collect(Collectors.toList());
+    }
+
+    private void generate(String key) {
+        String previewKey = derivativeKey(key, Size.PREVIEW);
+        String thumbKey = derivativeKey(key, Size.THUMB);
+        if (imageStorage.exists(previewKey) && imageStorage.exists(thumbKey)) {
+            return;
+        }
+
+        try {
+            BufferedImage original;
+            try (InputStream input = Channels.newInputStream(imageStorage.open(key))) {
+                original = ImageCodec.read(input, maxPixels, previewSize);
+            }
+            if (original == null) {
+                log.debug("No image reader for {}, skipping derivatives", key);
+                return;
+            }
+
+            BufferedImage preview = ImageCodec.scaleToFit(original, previewSize);
+            store(previewKey, preview);
+            store(thumbKey, ImageCodec.scaleToFit(preview, thumbSize));
+            log.debug("Generated derivatives for {}", key);
+        } catch (IOException | RuntimeException e) {
+            meterRegistry.counter("image.derivatives.failed").increment();
+            log.warn("Failed to generate derivatives for {}", key, e);
+        }
+    }
+
+    private void store(String derivativeKey, BufferedImage image) throws IOException {
+        if (imageStorage.exists(derivativeKey)) {
+            return;
+        }
+        Path temp = Files.createTempFile("kyc-derivative-", ".jpg");
+        try {
+            ImageCodec.writeJpeg(image, quality, temp);
+            imageStorage.put(derivativeKey, temp);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static boolean isDerivable(String key) {
+        String lower = key.toLowerCase(Locale.ROOT);
+        return (lower.endsWith(".jpg") || lower.endsWith(".jpeg") || lower.endsWith(".png"))
+                && !lower.contains("_thumb.") && !lower.contains("_preview.");
+    }
+
+    private static String derivativeKey(String key, Size size) {
+        int dot = key.lastIndexOf('.');
+        String base = dot > 0 ? key.substring(0, dot) : key;
+        return base + "_" + size.suffix() + ".jpg";
+    }
+}
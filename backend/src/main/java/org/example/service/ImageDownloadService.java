@@ -0,0 +1,240 @@
+package org.example.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Writes stored images to the HTTP response. Stored images never change once
+ * written, so responses get a strong ETag (the content hash for keys that carry
+ * one, a digest of the key for legacy UUID_originalFilename keys) and an immutable Cache-Control (no-cache for stand-ins, see
+ * {@link #serve}), conditional requests are answered with 304,
+ * and single byte ranges are honoured. Files on local disk are handed to
+ * Tomcat's sendfile support when the connector offers it, and are otherwise
+ * copied with {@link FileChannel#transferTo}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImageDownloadService {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+    private static final String CACHE_CONTROL_REVALIDATE = "no-cache";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // <sha256>, optionally followed by variant suffixes such as _normalized or _thumb
+    private static final Pattern CONTENT_HASH_KEY = Pattern.compile("[0-9a-f]{64}(_[a-z0-9]+)*");
+
+    private final ImageStorage imageStorage;
+
+    /**
+     * @param immutable false when the content is a stand-in for what the URL
+     *                  names (an original served in place of a pending
+     *                  derivative); caches then revalidate on every use and
+     *                  pick up the real content once it exists
+     */
+    public void serve(String key, boolean immutable, HttpServletRequest request,
+                      HttpServletResponse response) throws IOException {
+        if (!ImageStorage.isValidKey(key)) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        Optional<Path> localPath = imageStorage.localPath(key);
+        long length;
+        if (localPath.isPresent()) {
+            length = Files.size(localPath.get());
+        } else if (imageStorage.exists(key)) {
+            length = imageStorage.size(key);
+        } else {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        String etag = etagOf(key);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, immutable ? CACHE_CONTROL : CACHE_CONTROL_REVALIDATE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (matchesEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentType(contentTypeOf(key));
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        if (localPath.isPresent()) {
+            Path path = localPath.get();
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end + 1);
+                return;
+            }
+            try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+                WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+                long position = start;
+                long remaining = count;
+                while (remaining > 0) {
+                    long sent = file.transferTo(position, remaining, out);
+                    if (sent <= 0) {
+                        break;
+                    }
+                    position += sent;
+                    remaining -= sent;
+                }
+            }
+        } else {
+            try (SeekableByteChannel channel = imageStorage.open(key)) {
+                channel.position(start);
+                copy(channel, Channels.newChannel(response.getOutputStream()), count);
+            }
+        }
+    }
+
+    private static void copy(SeekableByteChannel source, WritableByteChannel out, long count) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long remaining = count;
+        while (remaining > 0) {
+            buffer.clear();
+            if (remaining < buffer.capacity()) {
+                buffer.limit((int) remaining);
+            }
+            int read = source.read(buffer);
+            if (read < 0) {
+                break;
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            remaining -= read;
+        }
+    }
+
+    /**
+     * Parses a Range header against the resource length. Returns {start, end}
+     * for a single satisfiable range, an empty array when the header should be
+     * ignored (multiple ranges or another unit), or null when unsatisfiable.
+     */
+    private static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            }
+            if (start >= length || start > end) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String etagOf(String key) {
+        int dot = key.lastIndexOf('.');
+        String base = dot > 0 ? key.substring(0, dot) : key;
+        if (CONTENT_HASH_KEY.matcher(base).matches()) {
+            return "\"" + base + "\"";
+        }
+        // Legacy keys embed the uploader's file name, which may hold quotes or non-ASCII characters
+        return "\"" + DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private static String contentTypeOf(String key) {
+        String extension = key.substring(key.lastIndexOf('.') + 1).toLowerCase();
+        switch (extension) {
+            case "jpg":
+            case "jpeg":
+                return MediaType.IMAGE_JPEG_VALUE;
+            case "png":
+                return MediaType.IMAGE_PNG_VALUE;
+            case "pdf":
+                return MediaType.APPLICATION_PDF_VALUE;
+            default:
+                return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        }
+    }
+}
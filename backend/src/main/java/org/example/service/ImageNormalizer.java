@@ -0,0 +1,123 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Produces the variant of an uploaded photo that is sent to the verification
+ * vendors: upright, no larger than maxDimension on its longest side and
+ * re-encoded as JPEG at the configured quality, which also drops EXIF and any
+ * other embedded metadata. The variant is stored as {@code <hash>_normalized.jpg}
+ * and shared by every upload of the same content.
+ */
+@Service
+@Slf4j
+public class ImageNormalizer {
+
+    private static final int EXIF_HEAD_LENGTH = 64 * 1024;
+
+    private final ImageStorage imageStorage;
+    private final MeterRegistry meterRegistry;
+    private final Timer normalizationTimer;
+    private final boolean enabled;
+    private final int maxDimension;
+    private final float quality;
+    private final long maxPixels;
+
+    public ImageNormalizer(ImageStorage imageStorage, MeterRegistry meterRegistry,
+                           @Value("${file.normalization.enabled:true}") boolean enabled,
+                           @Value("${file.normalization.max-dimension:2048}") int maxDimension,
+                           @Value("${file.normalization.quality:0.85}") float quality,
+                           @Value("${file.upload.max-pixels:50000000}") long maxPixels) {
+        this.imageStorage = imageStorage;
+        this.meterRegistry = meterRegistry;
+        this.normalizationTimer = Timer.builder("image.normalization").register(meterRegistry);
+        this.enabled = enabled;
+        this.maxDimension = maxDimension;
+        this.quality = quality;
+        this.maxPixels = maxPixels;
+    }
+
+    /**
+     * Returns the storage key of the normalized variant, creating it if needed,
+     * or null when the image is not normalized (disabled, not a raster image or
+     * failed), in which case vendors get the original. Images whose dimensions
+     * exceed the pixel limit are rejected with a RuntimeException instead, as
+     * no vendor should receive them.
+     */
+    public String normalize(String key) {
+        if (!enabled || !isNormalizable(key)) {
+            return null;
+        }
+        String normalizedKey = normalizedKey(key);
+        if (imageStorage.exists(normalizedKey)) {
+            return normalizedKey;
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try (InputStream input = Channels.newInputStream(imageStorage.open(key))) {
+            byte[] head = readHead(input);
+            BufferedImage image = ImageCodec.read(new SequenceInputStream(new ByteArrayInputStream(head), input),
+                    maxPixels, maxDimension);
+            if (image == null) {
+                return null;
+            }
+
+            image = ImageCodec.applyOrientation(image, ImageCodec.readExifOrientation(head));
+            image = ImageCodec.scaleToFit(image, maxDimension);
+
+            Path temp = Files.createTempFile("kyc-normalized-", ".jpg");
+            try {
+                ImageCodec.writeJpeg(image, quality, temp);
+                imageStorage.put(normalizedKey, temp);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            log.debug("Normalized {} to {}x{}", key, image.getWidth(), image.getHeight());
+            return normalizedKey;
+        } catch (ImageCodec.ImageTooLargeException e) {
+            meterRegistry.counter("image.normalization.rejected").increment();
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            meterRegistry.counter("image.normalization.failed").increment();
+            log.warn("Failed to normalize {}, vendors will receive the original", key, e);
+            return null;
+        } finally {
+            sample.stop(normalizationTimer);
+        }
+    }
+
+    public String normalizedKey(String key) {
+        int dot = key.lastIndexOf('.');
+        return (dot > 0 ? key.substring(0, dot) : key) + "_normalized.jpg";
+    }
+
+    private static byte[] readHead(InputStream input) throws IOException {
+        byte[] head = new byte[EXIF_HEAD_LENGTH];
+        int length = 0;
+        int read;
+        while (length < head.length && (read = input.read(head, length, head.length - length)) != -1) {
+            length += read;
+        }
+        return length == head.length ? head : Arrays.copyOf(head, length);
+    }
+
+    private static boolean isNormalizable(String key) {
+        String lower = key.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".jpg") || lower.endsWith(".jpeg") || lower.endsWith(".png");
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.service;
+
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Backend holding uploaded image files, addressed by storage key (the stored
+ * file name, e.g. {@code <sha256>.jpg}). The implementation is chosen with
+ * {@code file.storage.type}.
+ */
+public interface ImageStorage {
+
+    /**
+     * Stores the file under the key, taking ownership of the source file.
+     */
+    void put(String key, Path source) throws IOException;
+
+    boolean exists(String key);
+
+    long size(String key) throws IOException;
+
+    SeekableByteChannel open(String key) throws IOException;
+
+    /**
+     * The file backing the key when it lives on the local filesystem, for zero-copy serving.
+     */
+    Optional<Path> localPath(String key);
+
+    void delete(String key) throws IOException;
+
+    /**
+     * Keys are single file names. Besides content-addressed keys this admits
+     * the {@code UUID_originalFilename} names of uploads stored before content
+     * addressing, which may contain spaces and non-ASCII characters, so the
+     * check only rules out anything that could leave the storage directory or
+     * reach hidden entries such as the upload staging area.
+     */
+    static boolean isValidKey(String key) {
+        // With separators excluded below, a leading dot also covers "." and ".."
+        if (key == null || key.isEmpty() || key.startsWith(".")) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c == '/' || c == '\\' || c == ':' || Character.isISOControl(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String checkKey(String key) {
+        if (!isValidKey(key)) {
+            throw new IllegalArgumentException("Invalid storage key: " + key);
+        }
+        return key;
+    }
+}
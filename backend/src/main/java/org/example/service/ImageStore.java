@@ -0,0 +1,116 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.model.StoredImage;
+import org.example.repository.StoredImageRepository;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+
+/**
+ * Content-addressed image store. Each distinct image is kept once in the
+ * {@link ImageStorage} under {@code <sha256>.<ext>} and reference counted in the stored_images collection,
+ * so a user re-uploading the same photo does not add another copy. The file is
+ * removed when the last KYC process referring to it lets go.
+ */
+@Service
+@Slf4j
+public class ImageStore {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final StoredImageRepository storedImageRepository;
+    private final ImageStorage imageStorage;
+    private final ImageDerivativeService imageDerivativeService;
+    private final ImageNormalizer imageNormalizer;
+    private final MeterRegistry meterRegistry;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public ImageStore(StoredImageRepository storedImageRepository, ImageStorage imageStorage,
+                      ImageDerivativeService imageDerivativeService, ImageNormalizer imageNormalizer,
+                      MeterRegistry meterRegistry) {
+        this.storedImageRepository = storedImageRepository;
+        this.imageStorage = imageStorage;
+        this.imageDerivativeService = imageDerivativeService;
+        this.imageNormalizer = imageNormalizer;
+        this.meterRegistry = meterRegistry;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Files a staged upload under its hash, discarding it if the same content is
+     * already stored, and takes a reference on it.
+     */
+    public StoredImage attach(ImageUploadWriter.StagedFile staged) throws IOException {
+        String fileName = staged.getContentHash() + "." + staged.getExtension();
+
+        StoredImage image = new StoredImage();
+        image.setContentHash(staged.getContentHash());
+        image.setFileName(fileName);
+        image.setContentType(staged.getContentType());
+        image.setSize(staged.getSize());
+        image.setCreatedTime(LocalDateTime.now());
+
+        boolean duplicate;
+        synchronized (lockFor(staged.getContentHash())) {
+            duplicate = imageStorage.exists(fileName);
+            if (duplicate) {
+                Files.delete(staged.getPath());
+            } else {
+                imageStorage.put(fileName, staged.getPath());
+            }
+            storedImageRepository.addReference(image);
+        }
+
+        meterRegistry.counter("image.store.uploads", "result", duplicate ? "duplicate" : "new").increment();
+        log.debug("Attached image {} ({})", fileName, duplicate ? "duplicate" : "new");
+        return image;
+    }
+
+    /**
+     * Drops a reference taken by {@link #attach}, deleting the file once unreferenced.
+     */
+    public void release(String contentHash) {
+        if (contentHash == null) {
+            return;
+        }
+        synchronized (lockFor(contentHash)) {
+            StoredImage image = storedImageRepository.removeReference(contentHash);
+            if (image == null || image.getRefCount() > 0) {
+                return;
+            }
+            if (storedImageRepository.deleteIfUnreferenced(contentHash)) {
+                try {
+                    imageStorage.delete(image.getFileName());
+                    for (String derivativeKey : imageDerivativeService.derivativeKeys(image.getFileName())) {
+                        imageStorage.delete(derivativeKey);
+                    }
+                    imageStorage.delete(imageNormalizer.normalizedKey(image.getFileName()));
+                    log.info("Deleted unreferenced image {}", image.getFileName());
+                } catch (IOException e) {
+                    log.warn("Failed to delete unreferenced image {}", image.getFileName(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Discards a staged upload that will not be attached.
+     */
+    public void discard(ImageUploadWriter.StagedFile staged) {
+        try {
+            Files.deleteIfExists(staged.getPath());
+        } catch (IOException e) {
+            log.warn("Failed to delete staged upload {}", staged.getPath(), e);
+        }
+    }
+
+    private Object lockFor(String contentHash) {
+        return locks[Math.floorMod(contentHash.hashCode(), LOCK_STRIPES)];
+    }
+}
@@ -0,0 +1,169 @@
+package org.example.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Streams an uploaded image into a staging file through NIO channels. The
+ * SHA-256 digest is computed and the content type sniffed from the leading
+ * magic bytes while the data passes through, and the upload is abandoned as
+ * soon as it exceeds the size limit or turns out not to be an allowed type.
+ * The staged file is then handed to {@link ImageStore}, which files it under
+ * its hash.
+ */
+@Component
+@Slf4j
+public class ImageUploadWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int SNIFF_LENGTH = 8;
+    private static final String STAGING_DIR = ".staging";
+
+    private final Path stagingPath;
+    private final long maxSize;
+    private final Set<String> allowedTypes;
+
+    public ImageUploadWriter(@Value("${file.upload.path:uploads/}") String uploadDir,
+                             @Value("${file.upload.max-size:10MB}") DataSize maxSize,
+                             @Value("${file.upload.allowed-types:jpg,jpeg,png,pdf}") String allowedTypes) {
+        this.stagingPath = Paths.get(uploadDir).resolve(STAGING_DIR);
+        this.maxSize = maxSize.toBytes();
+        this.allowedTypes = Arrays.stream(allowedTypes.split(","))
+                .map(String::trim)
+                .map(String::toLowerCase)
+                .collect(Collectors.toSet());
+    }
+
+    @lombok.Value
+    public static class StagedFile {
+        Path path;
+        String contentHash;
+        String contentType;
+        String extension;
+        long size;
+    }
+
+    public StagedFile write(InputStream input, long declaredLength) throws IOException {
+        if (declaredLength > maxSize) {
+            throw new RuntimeException("File exceeds maximum size of " + maxSize + " bytes");
+        }
+        if (!Files.exists(stagingPath)) {
+            Files.createDirectories(stagingPath);
+        }
+
+        Path target = stagingPath.resolve(UUID.randomUUID() + ".part");
+        MessageDigest digest = newDigest();
+        byte[] header = new byte[SNIFF_LENGTH];
+        int headerLength = 0;
+        String extension = null;
+        long size = 0;
+
+        boolean completed = false;
+        try (ReadableByteChannel source = Channels.newChannel(input);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                size += buffer.remaining();
+                if (size > maxSize) {
+                    throw new RuntimeException("File exceeds maximum size of " + maxSize + " bytes");
+                }
+
+                if (extension == null) {
+                    int copy = Math.min(SNIFF_LENGTH - headerLength, buffer.remaining());
+                    buffer.duplicate().get(header, headerLength, copy);
+                    headerLength += copy;
+                    if (headerLength == SNIFF_LENGTH) {
+                        extension = checkExtension(header, headerLength);
+                    }
+                }
+
+                digest.update(buffer.duplicate());
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                buffer.clear();
+            }
+
+            if (extension == null) {
+                extension = checkExtension(header, headerLength);
+            }
+            completed = true;
+        } finally {
+            if (!completed) {
+                Files.deleteIfExists(target);
+            }
+        }
+
+        log.debug("Staged upload {} ({} bytes, {})", target, size, extension);
+        return new StagedFile(target, toHex(digest.digest()), contentTypeOf(extension), extension, size);
+    }
+
+    private String checkExtension(byte[] header, int length) {
+        String extension = detectExtension(header, length);
+        if (extension == null || !allowedTypes.contains(extension)) {
+            throw new RuntimeException("Unsupported file type");
+        }
+        return extension;
+    }
+
+    private static String contentTypeOf(String extension) {
+        switch (extension) {
+            case "png":
+                return "image/png";
+            case "pdf":
+                return "application/pdf";
+            default:
+                return "image/jpeg";
+        }
+    }
+
+    private static String detectExtension(byte[] header, int length) {
+        if (length >= 3 && (header[0] & 0xFF) == 0xFF && (header[1] & 0xFF) == 0xD8 && (header[2] & 0xFF) == 0xFF) {
+            return "jpg";
+        }
+        if (length >= 8 && (header[0] & 0xFF) == 0x89 && header[1] == 'P' && header[2] == 'N' && header[3] == 'G'
+                && header[4] == 0x0D && header[5] == 0x0A && header[6] == 0x1A && header[7] == 0x0A) {
+            return "png";
+        }
+        if (length >= 4 && header[0] == '%' && header[1] == 'P' && header[2] == 'D' && header[3] == 'F') {
+            return "pdf";
+        }
+        return null;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -2,13 +2,21 @@ package org.example.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.dto.CursorPage;
+import org.example.dto.KycSummary;
 import org.example.model.KycProcess;
 import org.example.repository.KycProcessRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -16,14 +24,49 @@ import java.util.Optional;
 public class KycAdminService {
 
     private final KycProcessRepository kycProcessRepository;
+    private final ImageStore imageStore;
+    private final KycStatusService kycStatusService;
+    private final KycStatsService kycStatsService;
+    private final TaskRoutingService taskRoutingService;
 
-    public Page<KycProcess> getKycList(Pageable pageable, String status) {
-        if ("ALL".equals(status)) {
-            return kycProcessRepository.findAll(pageable);
-        } else {
-            KycProcess.KycStatus kycStatus = KycProcess.KycStatus.valueOf(status);
-            return kycProcessRepository.findByStatus(kycStatus, pageable);
+    public Page<KycSummary> getKycList(Pageable pageable, String status) {
+        KycProcess.KycStatus kycStatus = "ALL".equals(status) ? null : KycProcess.KycStatus.valueOf(status);
+        return kycProcessRepository.findSummaries(kycStatus, pageable).map(this::toSummary);
+    }
+
+    /**
+     * Lists KYC processes newest first using a (createdTime, id) seek cursor
+     * instead of an offset. The total is only counted when asked for.
+     */
+    public CursorPage<KycSummary> getKycListByCursor(String cursor, int size, String status, boolean includeTotal) {
+        KycProcess.KycStatus kycStatus = "ALL".equals(status) ? null : KycProcess.KycStatus.valueOf(status);
+        LocalDateTime afterCreatedTime = null;
+        String afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] key = decodeCursor(cursor);
+            afterCreatedTime = LocalDateTime.parse(key[0]);
+            afterId = key[1];
+        }
+
+        List<KycProcess> rows = kycProcessRepository.findSummariesAfter(kycStatus, afterCreatedTime, afterId, size + 1);
+        boolean hasMore = rows.size() > size;
+        if (hasMore) {
+            rows = rows.subList(0, size);
+        }
+
+        CursorPage<KycSummary> page = new CursorPage<>();
+        page.setItems(rows.stream().map(this::toSummary).collect(Collectors.toList()));
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            KycProcess last = rows.get(rows.size() - 1);
+            page.setNextCursor(encodeCursor(last.getCreatedTime(), last.getId()));
         }
+        if (includeTotal) {
+            page.setTotalElements(kycStatus != null
+                    ? kycProcessRepository.countByStatus(kycStatus)
+                    : kycProcessRepository.count());
+        }
+        return page;
     }
 
     public KycProcess getKycDetail(String kycId) {
@@ -35,10 +78,56 @@ public class KycAdminService {
     }
 
     public void deleteKyc(String kycId) {
-        if (!kycProcessRepository.existsById(kycId)) {
-            throw new RuntimeException("KYC process not found: " + kycId);
-        }
+        KycProcess process = kycProcessRepository.findById(kycId)
+                .orElseThrow(() -> new RuntimeException("KYC process not found: " + kycId));
         kycProcessRepository.deleteById(kycId);
+        kycStatsService.recordDeleted(process.getStatus());
+        kycStatusService.evict(kycId);
+        taskRoutingService.releaseAll(kycId);
+        if (process.getIdCardInfo() != null) {
+            imageStore.release(process.getIdCardInfo().getContentHash());
+        }
+        if (process.getFaceInfo() != null) {
+            imageStore.release(process.getFaceInfo().getContentHash());
+        }
         log.info("KYC process deleted: {}", kycId);
     }
-}
\ No newline at end of file
+
+    private static String encodeCursor(LocalDateTime createdTime, String id) {
+        String key = createdTime + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = key.split("\\|", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("missing separator");
+            }
+            LocalDateTime.parse(parts[0]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new RuntimeException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private KycSummary toSummary(KycProcess process) {
+        KycSummary summary = new KycSummary();
+        summary.setId(process.getId());
+        summary.setUserId(process.getUserId());
+        summary.setStatus(process.getStatus() != null ? process.getStatus().toString() : null);
+        summary.setCreatedTime(process.getCreatedTime());
+        summary.setUpdatedTime(process.getUpdatedTime());
+        if (process.getIdCardInfo() != null) {
+            summary.setIdCardFilePath(process.getIdCardInfo().getFilePath());
+        }
+        if (process.getFaceInfo() != null) {
+            summary.setFaceFilePath(process.getFaceInfo().getFilePath());
+        }
+        if (process.getFinalResult() != null) {
+            summary.setPassed(process.getFinalResult().getPassed());
+        }
+        return summary;
+    }
+}
@@ -0,0 +1,128 @@
+package org.example.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.example.dto.BulkSessionResult;
+import org.example.dto.CreateKycSessionRequest;
+import org.example.model.KycProcess;
+import org.example.repository.KycProcessRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Creates KYC sessions for batch onboarding. Requests are inserted in chunks,
+ * each with one unordered bulk write, and the per-item results of every chunk
+ * are handed to the caller as soon as it is written so they can be streamed
+ * back. Items that fail validation or the insert are reported individually
+ * without affecting the rest of the chunk.
+ */
+@Service
+@Slf4j
+public class KycBulkSessionService {
+
+    private final KycProcessRepository kycProcessRepository;
+    private final KycStatsService kycStatsService;
+    private final KycRollupService kycRollupService;
+    private final int maxItems;
+    private final int batchSize;
+
+    public KycBulkSessionService(KycProcessRepository kycProcessRepository,
+                                 KycStatsService kycStatsService,
+                                 KycRollupService kycRollupService,
+                                 @Value("${kyc.bulk-session.max-items:10000}") int maxItems,
+                                 @Value("${kyc.bulk-session.batch-size:500}") int batchSize) {
+        this.kycProcessRepository = kycProcessRepository;
+        this.kycStatsService = kycStatsService;
+        this.kycRollupService = kycRollupService;
+        this.maxItems = maxItems;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Rejects the whole request up front if it cannot be processed at all.
+     */
+    public void validate(List<CreateKycSessionRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new RuntimeException("No sessions requested");
+        }
+        if (requests.size() > maxItems) {
+            throw new RuntimeException("Too many sessions requested: at most " + maxItems + " per request");
+        }
+    }
+
+    public void createSessions(List<CreateKycSessionRequest> requests, Consumer<List<BulkSessionResult>> resultSink) {
+        for (int start = 0; start < requests.size(); start += batchSize) {
+            List<CreateKycSessionRequest> batch = requests.subList(start, Math.min(start + batchSize, requests.size()));
+            resultSink.accept(createBatch(start, batch));
+        }
+    }
+
+    private List<BulkSessionResult> createBatch(int offset, List<CreateKycSessionRequest> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        List<BulkSessionResult> results = new ArrayList<>(batch.size());
+        List<KycProcess> processes = new ArrayList<>(batch.size());
+        List<BulkSessionResult> pending = new ArrayList<>(batch.size());
+
+        for (int i = 0; i < batch.size(); i++) {
+            CreateKycSessionRequest request = batch.get(i);
+            BulkSessionResult result = new BulkSessionResult();
+            result.setIndex(offset + i);
+            results.add(result);
+            if (request == null || request.getUserId() == null || request.getUserId().trim().isEmpty()) {
+                result.setError("userId is required");
+                continue;
+            }
+            result.setUserId(request.getUserId());
+
+            KycProcess process = new KycProcess();
+            process.setId(new ObjectId().toHexString());
+            process.setVersion(0L);
+            process.setUserId(request.getUserId());
+            process.setStatus(KycProcess.KycStatus.PENDING);
+            process.setCreatedTime(now);
+            process.setUpdatedTime(now);
+            processes.add(process);
+            pending.add(result);
+        }
+
+        Map<Integer, String> failures;
+        try {
+            failures = kycProcessRepository.insertUnordered(processes);
+        } catch (DataAccessException e) {
+            // Timeouts and network errors leave it unknown which documents were written, so
+            // report the pre-assigned kycIds and let the client check them with a status lookup
+            log.warn("Bulk session batch at {}: write of {} sessions failed, outcome unknown",
+                    offset, processes.size(), e);
+            for (int i = 0; i < processes.size(); i++) {
+                pending.get(i).setKycId(processes.get(i).getId());
+                pending.get(i).setError("write outcome unknown: " + e.getMessage());
+            }
+            return results;
+        }
+        for (int i = 0; i < processes.size(); i++) {
+            BulkSessionResult result = pending.get(i);
+            String error = failures.get(i);
+            if (error != null) {
+                result.setError(error);
+            } else {
+                result.setKycId(processes.get(i).getId());
+                result.setStatus(KycProcess.KycStatus.PENDING.toString());
+            }
+        }
+
+        long created = processes.size() - failures.size();
+        kycStatsService.recordCreated(KycProcess.KycStatus.PENDING, created);
+        kycRollupService.recordCreated(now, created);
+        if (!failures.isEmpty()) {
+            log.warn("Bulk session batch at {}: {} created, {} failed", offset, created, failures.size());
+        }
+        return results;
+    }
+}
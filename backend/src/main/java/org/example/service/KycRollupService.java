@@ -0,0 +1,212 @@
+package org.example.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.dto.KycRollupPoint;
+import org.example.model.KycProcess;
+import org.example.model.KycRollupBucket;
+import org.example.repository.KycProcessRepository;
+import org.example.repository.KycRollupBucketRepository;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains hourly and daily rollups of sessions created, completions,
+ * failures and completion latency in kyc_rollups, so analytics read a handful
+ * of small bucket documents instead of scanning kyc_processes. Buckets are
+ * updated with atomic $inc as sessions are created and workflows finish, and
+ * backfilled from an aggregation over kyc_processes when the collection is empty.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class KycRollupService {
+
+    /**
+     * Upper bounds of the latency histogram bins; a final bin collects
+     * everything above the last bound.
+     */
+    private static final long[] LATENCY_BOUNDS_MS = {
+            1_000, 2_000, 5_000, 10_000, 30_000,
+            60_000, 120_000, 300_000, 600_000, 1_800_000,
+            3_600_000, 7_200_000, 21_600_000, 43_200_000, 86_400_000
+    };
+
+    private static final int MAX_POINTS = 1000;
+
+    private final KycProcessRepository kycProcessRepository;
+    private final KycRollupBucketRepository kycRollupBucketRepository;
+
+    @PostConstruct
+    public void backfillIfEmpty() {
+        try {
+            if (kycRollupBucketRepository.count() > 0) {
+                return;
+            }
+            List<KycRollupBucket> hourly = kycProcessRepository.aggregateHourlyRollups(LATENCY_BOUNDS_MS);
+            List<KycRollupBucket> buckets = new ArrayList<>(hourly);
+            buckets.addAll(toDaily(hourly));
+            kycRollupBucketRepository.saveAll(buckets);
+            log.info("Backfilled {} KYC rollup buckets", buckets.size());
+        } catch (RuntimeException e) {
+            log.warn("Failed to backfill KYC rollups", e);
+        }
+    }
+
+    public void recordCreated(LocalDateTime createdTime) {
+        recordCreated(createdTime, 1);
+    }
+
+    public void recordCreated(LocalDateTime createdTime, long count) {
+        if (createdTime != null && count > 0) {
+            increment(createdTime, Collections.singletonMap("created", count));
+        }
+    }
+
+    /**
+     * Counts a process reaching a final status. Callers record each process
+     * once, the first time it finishes. Latency is only tracked for successful
+     * completions.
+     */
+    public void recordFinished(KycProcess.KycStatus status, LocalDateTime createdTime, LocalDateTime completedTime) {
+        if (completedTime == null) {
+            return;
+        }
+        Map<String, Long> deltas = new HashMap<>();
+        if (status == KycProcess.KycStatus.FAILED) {
+            deltas.put("failed", 1L);
+        } else if (status == KycProcess.KycStatus.COMPLETED) {
+            deltas.put("completed", 1L);
+            if (createdTime != null) {
+                long latency = Math.max(Duration.between(createdTime, completedTime).toMillis(), 0L);
+                deltas.put("latencySumMs", latency);
+                deltas.put("latencyCount", 1L);
+                deltas.put("latencyHistogram." + binOf(latency), 1L);
+            }
+        }
+        increment(completedTime, deltas);
+    }
+
+    /**
+     * Returns one point per bucket in [from, to), filling buckets with no
+     * activity with zeros.
+     */
+    public List<KycRollupPoint> getRollups(KycRollupBucket.Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = bucketStart(granularity, from);
+        if (!start.isBefore(to)) {
+            throw new RuntimeException("Invalid range: from must be before to");
+        }
+        ChronoUnit unit = granularity == KycRollupBucket.Granularity.HOUR ? ChronoUnit.HOURS : ChronoUnit.DAYS;
+        if (unit.between(start, to) > MAX_POINTS) {
+            throw new RuntimeException("Range too large: at most " + MAX_POINTS + " buckets");
+        }
+
+        Map<LocalDateTime, KycRollupBucket> stored = kycRollupBucketRepository
+                .findByGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStartAsc(
+                        granularity, start, to)
+                .stream()
+                .collect(Collectors.toMap(KycRollupBucket::getBucketStart, Function.identity()));
+
+        List<KycRollupPoint> points = new ArrayList<>();
+        for (LocalDateTime bucket = start; bucket.isBefore(to); bucket = bucket.plus(1, unit)) {
+            points.add(toPoint(bucket, stored.get(bucket)));
+        }
+        return points;
+    }
+
+    private void increment(LocalDateTime time, Map<String, Long> deltas) {
+        for (KycRollupBucket.Granularity granularity : KycRollupBucket.Granularity.values()) {
+            try {
+                kycRollupBucketRepository.increment(granularity, bucketStart(granularity, time), deltas);
+            } catch (RuntimeException e) {
+                log.warn("Failed to update {} KYC rollup at {}", granularity, time, e);
+            }
+        }
+    }
+
+    private static LocalDateTime bucketStart(KycRollupBucket.Granularity granularity, LocalDateTime time) {
+        return granularity == KycRollupBucket.Granularity.HOUR
+                ? time.truncatedTo(ChronoUnit.HOURS)
+                : time.truncatedTo(ChronoUnit.DAYS);
+    }
+
+    private static int binOf(long latencyMs) {
+        for (int i = 0; i < LATENCY_BOUNDS_MS.length; i++) {
+            if (latencyMs < LATENCY_BOUNDS_MS[i]) {
+                return i;
+            }
+        }
+        return LATENCY_BOUNDS_MS.length;
+    }
+
+    private static List<KycRollupBucket> toDaily(List<KycRollupBucket> hourly) {
+        Map<LocalDateTime, KycRollupBucket> daily = new HashMap<>();
+        for (KycRollupBucket hour : hourly) {
+            KycRollupBucket day = daily.computeIfAbsent(
+                    bucketStart(KycRollupBucket.Granularity.DAY, hour.getBucketStart()), start -> {
+                        KycRollupBucket bucket = new KycRollupBucket();
+                        bucket.setId(KycRollupBucket.idOf(KycRollupBucket.Granularity.DAY, start));
+                        bucket.setGranularity(KycRollupBucket.Granularity.DAY);
+                        bucket.setBucketStart(start);
+                        bucket.setLatencyHistogram(new HashMap<>());
+                        return bucket;
+                    });
+            day.setCreated(day.getCreated() + hour.getCreated());
+            day.setCompleted(day.getCompleted() + hour.getCompleted());
+            day.setFailed(day.getFailed() + hour.getFailed());
+            day.setLatencySumMs(day.getLatencySumMs() + hour.getLatencySumMs());
+            day.setLatencyCount(day.getLatencyCount() + hour.getLatencyCount());
+            hour.getLatencyHistogram().forEach((bin, count) -> day.getLatencyHistogram().merge(bin, count, Long::sum));
+        }
+        return new ArrayList<>(daily.values());
+    }
+
+    private static KycRollupPoint toPoint(LocalDateTime bucketStart, KycRollupBucket bucket) {
+        KycRollupPoint point = new KycRollupPoint();
+        point.setBucketStart(bucketStart);
+        if (bucket == null) {
+            return point;
+        }
+        point.setCreated(bucket.getCreated());
+        point.setCompleted(bucket.getCompleted());
+        point.setFailed(bucket.getFailed());
+        if (bucket.getLatencyCount() > 0) {
+            point.setAverageLatencyMs(bucket.getLatencySumMs() / bucket.getLatencyCount());
+            point.setP95LatencyMs(percentile(bucket.getLatencyHistogram(), bucket.getLatencyCount(), 0.95));
+        }
+        return point;
+    }
+
+    /**
+     * Estimates a percentile as the upper bound of the histogram bin it falls
+     * in, so the reported p95 is not an exact value: it can overstate the true
+     * latency by up to the width of that bin, and the overflow bin reports the
+     * last bound.
+     */
+    private static Long percentile(Map<String, Long> histogram, long total, double quantile) {
+        if (histogram == null || histogram.isEmpty()) {
+            return null;
+        }
+        long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i <= LATENCY_BOUNDS_MS.length; i++) {
+            Long count = histogram.get(String.valueOf(i));
+            seen += count != null ? count : 0L;
+            if (seen >= rank) {
+                return LATENCY_BOUNDS_MS[Math.min(i, LATENCY_BOUNDS_MS.length - 1)];
+            }
+        }
+        return LATENCY_BOUNDS_MS[LATENCY_BOUNDS_MS.length - 1];
+    }
+}
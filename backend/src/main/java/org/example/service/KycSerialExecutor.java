@@ -0,0 +1,98 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs tasks on a shared pool while guaranteeing that tasks submitted for the
+ * same kycId execute one at a time, in submission order. Each kycId only holds
+ * the tail of its own task chain, so a slow KYC never delays unrelated ones and
+ * no thread blocks waiting for a lock.
+ * <p>
+ * Tasks never run on the submitting thread, which may be a Reactor Netty event
+ * loop or the node timeout timer. When the pool is saturated a task is handed
+ * to a requeue thread that resubmits it after a short backoff.
+ */
+@Component
+@Slf4j
+public class KycSerialExecutor {
+
+    private static final long REQUEUE_BASE_DELAY_MS = 10;
+    private static final long REQUEUE_MAX_DELAY_MS = 500;
+
+    private final Executor executor;
+    private final ConcurrentMap<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService requeueScheduler;
+    private final Counter rejections;
+    private final AtomicInteger requeued = new AtomicInteger();
+
+    public KycSerialExecutor(@Qualifier("workflowExecutor") Executor executor, MeterRegistry meterRegistry) {
+        this.executor = executor;
+        this.requeueScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "kyc-workflow-requeue");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.rejections = meterRegistry.counter("kyc.serial.executor.rejected");
+        meterRegistry.gauge("kyc.serial.executor.active.keys", tails, ConcurrentMap::size);
+        meterRegistry.gauge("kyc.serial.executor.requeued", requeued);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        requeueScheduler.shutdownNow();
+    }
+
+    public CompletableFuture<Void> submit(String kycId, Runnable task) {
+        CompletableFuture<Void> next = new CompletableFuture<>();
+        CompletableFuture<Void> previous = tails.put(kycId, next);
+        if (previous == null) {
+            previous = CompletableFuture.completedFuture(null);
+        }
+
+        previous.thenRunAsync(task, this::execute)
+                .whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        log.error("Task failed for KYC: {}", kycId, error);
+                    }
+                    tails.remove(kycId, next);
+                    next.complete(null);
+                });
+        return next;
+    }
+
+    private void execute(Runnable command) {
+        execute(command, 0);
+    }
+
+    private void execute(Runnable command, int attempt) {
+        try {
+            executor.execute(command);
+            if (attempt > 0) {
+                requeued.decrementAndGet();
+            }
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            if (attempt == 0) {
+                requeued.incrementAndGet();
+                log.debug("Workflow pool saturated, requeueing task");
+            }
+            long delay = Math.min(REQUEUE_MAX_DELAY_MS, REQUEUE_BASE_DELAY_MS << Math.min(attempt, 6));
+            requeueScheduler.schedule(() -> execute(command, attempt + 1), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -2,22 +2,25 @@ package org.example.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.dto.KycBatchStatusResult;
 import org.example.dto.KycUploadResponse;
 import org.example.dto.KycStatusResponse;
 import org.example.dto.CreateKycSessionRequest;
 import org.example.dto.CreateKycSessionResponse;
 import org.example.model.KycProcess;
+import org.example.model.StoredImage;
 import org.example.repository.KycProcessRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.InputStream;
 import java.time.LocalDateTime;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -26,7 +29,13 @@ public class KycService {
 
     private final KycProcessRepository kycProcessRepository;
     private final WorkflowService workflowService;
-    private final String uploadDir = "uploads/";
+    private final ImageUploadWriter imageUploadWriter;
+    private final ImageStore imageStore;
+    private final ImageDerivativeService imageDerivativeService;
+    private final ImageNormalizer imageNormalizer;
+    private final KycStatusService kycStatusService;
+    private final KycStatsService kycStatsService;
+    private final KycRollupService kycRollupService;
 
     public CreateKycSessionResponse createKycSession(CreateKycSessionRequest request) {
         KycProcess process = new KycProcess();
@@ -36,6 +45,8 @@ public class KycService {
         process.setUpdatedTime(LocalDateTime.now());
         
         process = kycProcessRepository.save(process);
+        kycStatsService.recordCreated(process.getStatus());
+        kycRollupService.recordCreated(process.getCreatedTime());
         
         CreateKycSessionResponse response = new CreateKycSessionResponse();
         response.setKycId(process.getId());
@@ -46,103 +57,142 @@ public class KycService {
     }
 
     public KycUploadResponse uploadIdCard(String kycId, MultipartFile idCardImage) throws IOException {
-        Optional<KycProcess> processOpt = kycProcessRepository.findById(kycId);
-        if (!processOpt.isPresent()) {
+        return uploadIdCard(kycId, idCardImage.getInputStream(), idCardImage.getSize(),
+                idCardImage.getOriginalFilename());
+    }
+
+    public KycUploadResponse uploadIdCard(String kycId, InputStream content, long contentLength,
+                                          String originalFilename) throws IOException {
+        if (!kycProcessRepository.existsById(kycId)) {
             throw new RuntimeException("KYC process not found: " + kycId);
         }
 
-        String fileName = UUID.randomUUID() + "_" + idCardImage.getOriginalFilename();
-        String filePath = saveFile(idCardImage, fileName);
+        StoredImage stored = storeImage(content, contentLength);
 
-        KycProcess process = processOpt.get();
         KycProcess.IdCardInfo idCardInfo = new KycProcess.IdCardInfo();
-        idCardInfo.setFileName(idCardImage.getOriginalFilename());
-        idCardInfo.setFilePath(filePath);
+        idCardInfo.setFileName(originalFilename);
+        idCardInfo.setFilePath(stored.getFileName());
+        idCardInfo.setNormalizedFilePath(normalizeImage(stored));
+        idCardInfo.setContentHash(stored.getContentHash());
+        idCardInfo.setContentType(stored.getContentType());
+        idCardInfo.setFileSize(stored.getSize());
         idCardInfo.setUploadTime(LocalDateTime.now());
         idCardInfo.setVerificationStatus(KycProcess.VerificationStatus.PENDING);
         
-        process.setIdCardInfo(idCardInfo);
-        process.setUpdatedTime(LocalDateTime.now());
-        process = kycProcessRepository.save(process);
+        AtomicReference<String> previousHash = new AtomicReference<>();
+        KycProcess process = attachImage(stored, kycId, current -> {
+            previousHash.set(current.getIdCardInfo() != null ? current.getIdCardInfo().getContentHash() : null);
+            current.setIdCardInfo(idCardInfo);
+            current.setUpdatedTime(LocalDateTime.now());
+        });
+        imageStore.release(previousHash.get());
+        imageDerivativeService.generateAsync(stored.getFileName());
 
         KycUploadResponse response = new KycUploadResponse();
         response.setKycId(process.getId());
-        response.setUploadId(fileName);
+        response.setUploadId(stored.getFileName());
 
         return response;
     }
 
     public KycUploadResponse uploadFace(String kycId, MultipartFile faceImage) throws IOException {
+        return uploadFace(kycId, faceImage.getInputStream(), faceImage.getSize(), faceImage.getOriginalFilename());
+    }
+
+    public KycUploadResponse uploadFace(String kycId, InputStream content, long contentLength,
+                                        String originalFilename) throws IOException {
         log.info("Looking for KYC process with ID: {}", kycId);
-        Optional<KycProcess> processOpt = kycProcessRepository.findById(kycId);
-        log.info("KYC process found: {}", processOpt.isPresent());
-        if (!processOpt.isPresent()) {
+        boolean exists = kycProcessRepository.existsById(kycId);
+        log.info("KYC process found: {}", exists);
+        if (!exists) {
             log.error("KYC process not found: {}", kycId);
             throw new RuntimeException("KYC process not found: " + kycId);
         }
 
-        String fileName = UUID.randomUUID() + "_" + faceImage.getOriginalFilename();
-        String filePath = saveFile(faceImage, fileName);
+        StoredImage stored = storeImage(content, contentLength);
 
-        KycProcess process = processOpt.get();
         KycProcess.FaceInfo faceInfo = new KycProcess.FaceInfo();
-        faceInfo.setFileName(faceImage.getOriginalFilename());
-        faceInfo.setFilePath(filePath);
+        faceInfo.setFileName(originalFilename);
+        faceInfo.setFilePath(stored.getFileName());
+        faceInfo.setNormalizedFilePath(normalizeImage(stored));
+        faceInfo.setContentHash(stored.getContentHash());
+        faceInfo.setContentType(stored.getContentType());
+        faceInfo.setFileSize(stored.getSize());
         faceInfo.setUploadTime(LocalDateTime.now());
         faceInfo.setVerificationStatus(KycProcess.VerificationStatus.PENDING);
         
-        process.setFaceInfo(faceInfo);
-        process.setUpdatedTime(LocalDateTime.now());
-        kycProcessRepository.save(process);
+        AtomicReference<String> previousHash = new AtomicReference<>();
+        attachImage(stored, kycId, current -> {
+            previousHash.set(current.getFaceInfo() != null ? current.getFaceInfo().getContentHash() : null);
+            current.setFaceInfo(faceInfo);
+            current.setUpdatedTime(LocalDateTime.now());
+        });
+        imageStore.release(previousHash.get());
+        imageDerivativeService.generateAsync(stored.getFileName());
 
         workflowService.startWorkflow(kycId);
 
         KycUploadResponse response = new KycUploadResponse();
         response.setKycId(kycId);
-        response.setUploadId(fileName);
+        response.setUploadId(stored.getFileName());
 
         return response;
     }
 
     public KycStatusResponse getKycStatus(String kycId) {
-        Optional<KycProcess> processOpt = kycProcessRepository.findById(kycId);
-        if (!processOpt.isPresent()) {
-            throw new RuntimeException("KYC process not found: " + kycId);
+        return kycStatusService.getStatus(kycId);
+    }
+
+    /**
+     * Looks up the status of every id, in request order. Unknown ids get an
+     * error entry instead of failing the whole lookup.
+     */
+    public List<KycBatchStatusResult> getKycStatuses(List<String> kycIds) {
+        if (kycIds == null || kycIds.isEmpty()) {
+            throw new RuntimeException("No KYC ids requested");
         }
+        Map<String, KycStatusResponse> statuses = kycStatusService.getStatuses(kycIds);
+        List<KycBatchStatusResult> results = new ArrayList<>(kycIds.size());
+        for (String kycId : kycIds) {
+            KycStatusResponse status = statuses.get(kycId);
+            results.add(status != null
+                    ? KycBatchStatusResult.of(status)
+                    : KycBatchStatusResult.error(kycId, "KYC process not found: " + kycId));
+        }
+        return results;
+    }
 
-        KycProcess process = processOpt.get();
-        KycStatusResponse response = new KycStatusResponse();
-        response.setKycId(kycId);
-        response.setStatus(process.getStatus().toString());
-        
-        if (process.getWorkflowNodes() != null && !process.getWorkflowNodes().isEmpty()) {
-            long completedNodes = process.getWorkflowNodes().stream()
-                    .mapToLong(node -> node.getStatus() == KycProcess.NodeStatus.COMPLETED ? 1 : 0)
-                    .sum();
-            response.setProgress((int) (completedNodes * 100 / process.getWorkflowNodes().size()));
-            
-            Optional<KycProcess.WorkflowNode> currentNode = process.getWorkflowNodes().stream()
-                    .filter(node -> node.getStatus() == KycProcess.NodeStatus.IN_PROGRESS)
-                    .findFirst();
-            if (currentNode.isPresent()) {
-                response.setCurrentNode(currentNode.get().getNodeName());
-            }
-        } else {
-            response.setProgress(0);
+    private StoredImage storeImage(InputStream content, long contentLength) throws IOException {
+        ImageUploadWriter.StagedFile staged = imageUploadWriter.write(content, contentLength);
+        try {
+            return imageStore.attach(staged);
+        } catch (IOException | RuntimeException e) {
+            imageStore.discard(staged);
+            throw e;
         }
-        
-        response.setResult(process.getFinalResult());
-        return response;
     }
 
-    private String saveFile(MultipartFile file, String fileName) throws IOException {
-        Path uploadPath = Paths.get(uploadDir);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
+    /**
+     * Produces the vendor variant, giving the reference back if the image is rejected.
+     */
+    private String normalizeImage(StoredImage stored) {
+        try {
+            return imageNormalizer.normalize(stored.getFileName());
+        } catch (RuntimeException e) {
+            imageStore.release(stored.getContentHash());
+            throw e;
         }
+    }
 
-        Path filePath = uploadPath.resolve(fileName);
-        Files.copy(file.getInputStream(), filePath);
-        return filePath.toString();
+    /**
+     * Records the stored image on the process, giving the reference back if the update fails.
+     */
+    private KycProcess attachImage(StoredImage stored, String kycId, Consumer<KycProcess> mutation) {
+        try {
+            return kycProcessRepository.updateWithRetry(kycId, mutation);
+        } catch (RuntimeException e) {
+            imageStore.release(stored.getContentHash());
+            throw e;
+        }
     }
-}
\ No newline at end of file
+}
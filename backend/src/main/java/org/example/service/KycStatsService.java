@@ -0,0 +1,103 @@
+package org.example.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.dto.KycStatsResponse;
+import org.example.model.KycProcess;
+import org.example.model.KycStatusCounts;
+import org.example.repository.KycProcessRepository;
+import org.example.repository.KycStatusCountsRepository;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps a running count of KYC processes per status in the kyc_stats
+ * collection so the dashboard does not have to count the processes collection.
+ * Every transition applies -1/+1 to the affected counters in one atomic $inc,
+ * and the counters are recomputed from an aggregation at startup to correct
+ * any drift left behind by failed updates.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class KycStatsService {
+
+    private final KycProcessRepository kycProcessRepository;
+    private final KycStatusCountsRepository kycStatusCountsRepository;
+
+    @PostConstruct
+    public void rebuild() {
+        try {
+            Map<String, Long> counts = new HashMap<>();
+            for (KycProcess.KycStatus status : KycProcess.KycStatus.values()) {
+                counts.put(status.name(), 0L);
+            }
+            kycProcessRepository.countByStatusGrouped()
+                    .forEach((status, count) -> counts.put(status.name(), count));
+            kycStatusCountsRepository.replaceCounts(counts);
+            log.info("KYC status counters rebuilt: {}", counts);
+        } catch (RuntimeException e) {
+            log.warn("Failed to rebuild KYC status counters, keeping stored values", e);
+        }
+    }
+
+    public void recordCreated(KycProcess.KycStatus status) {
+        recordCreated(status, 1);
+    }
+
+    public void recordCreated(KycProcess.KycStatus status, long count) {
+        if (count > 0) {
+            increment(Collections.singletonMap(status.name(), count));
+        }
+    }
+
+    public void recordTransition(KycProcess.KycStatus from, KycProcess.KycStatus to) {
+        if (from == null || to == null || from == to) {
+            return;
+        }
+        Map<String, Long> deltas = new HashMap<>();
+        deltas.put(from.name(), -1L);
+        deltas.put(to.name(), 1L);
+        increment(deltas);
+    }
+
+    public void recordDeleted(KycProcess.KycStatus status) {
+        if (status != null) {
+            increment(Collections.singletonMap(status.name(), -1L));
+        }
+    }
+
+    public KycStatsResponse getStats() {
+        Map<String, Long> counts = kycStatusCountsRepository.findById(KycStatusCounts.ID)
+                .map(KycStatusCounts::getCounts)
+                .orElse(Collections.emptyMap());
+
+        KycStatsResponse stats = new KycStatsResponse();
+        stats.setPending(count(counts, KycProcess.KycStatus.PENDING));
+        stats.setInProgress(count(counts, KycProcess.KycStatus.IN_PROGRESS));
+        stats.setCompleted(count(counts, KycProcess.KycStatus.COMPLETED));
+        stats.setFailed(count(counts, KycProcess.KycStatus.FAILED));
+        stats.setTotal(stats.getPending() + stats.getInProgress() + stats.getCompleted() + stats.getFailed());
+        return stats;
+    }
+
+    /**
+     * Counter updates never fail the transition itself; the next rebuild corrects a missed one.
+     */
+    private void increment(Map<String, Long> deltas) {
+        try {
+            kycStatusCountsRepository.increment(deltas);
+        } catch (RuntimeException e) {
+            log.warn("Failed to update KYC status counters {}", deltas, e);
+        }
+    }
+
+    private static long count(Map<String, Long> counts, KycProcess.KycStatus status) {
+        Long count = counts != null ? counts.get(status.name()) : null;
+        return count != null ? Math.max(count, 0L) : 0L;
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.service;
+
+import org.example.dto.KycStatusResponse;
+import org.example.model.KycProcess;
+import org.example.model.KycStatusView;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Builds the client-facing status of a KYC process: overall status,
+ * percentage of completed workflow nodes and the node currently running.
+ */
+@Component
+public class KycStatusMapper {
+
+    public KycStatusView toStatusView(KycProcess process) {
+        KycStatusView view = new KycStatusView();
+        view.setKycId(process.getId());
+        view.setStatus(process.getStatus());
+        view.setProgress(calculateProgress(process.getWorkflowNodes()));
+        view.setCurrentNode(currentNode(process.getWorkflowNodes()));
+        view.setFinalResult(process.getFinalResult());
+        view.setProcessVersion(process.getVersion());
+        view.setUpdatedTime(process.getUpdatedTime());
+        return view;
+    }
+
+    public KycStatusResponse toStatusResponse(KycStatusView view) {
+        KycStatusResponse response = new KycStatusResponse();
+        response.setKycId(view.getKycId());
+        response.setStatus(view.getStatus().toString());
+        response.setProgress(view.getProgress());
+        response.setCurrentNode(view.getCurrentNode());
+        response.setResult(view.getFinalResult());
+        return response;
+    }
+
+    public int calculateProgress(List<KycProcess.WorkflowNode> nodes) {
+        if (nodes == null || nodes.isEmpty()) {
+            return 0;
+        }
+        long completedNodes = nodes.stream()
+                .filter(node -> node.getStatus() == KycProcess.NodeStatus.COMPLETED)
+                .count();
+        return (int) (completedNodes * 100 / nodes.size());
+    }
+
+    public String currentNode(List<KycProcess.WorkflowNode> nodes) {
+        if (nodes == null) {
+            return null;
+        }
+        return nodes.stream()
+                .filter(node -> node.getStatus() == KycProcess.NodeStatus.IN_PROGRESS)
+                .map(KycProcess.WorkflowNode::getNodeName)
+                .findFirst()
+                .orElse(null);
+    }
+}
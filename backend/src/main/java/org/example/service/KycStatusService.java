@@ -0,0 +1,149 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.example.dto.KycStatusResponse;
+import org.example.model.KycProcess;
+import org.example.model.KycStatusView;
+import org.example.repository.KycProcessRepository;
+import org.example.repository.KycStatusViewRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Serves KYC status from the kyc_status projection through a bounded, expiring
+ * in-memory cache. The workflow engine calls {@link #refresh} on every
+ * transition, which rewrites the projection and the cached entry, so reads are
+ * normally answered from memory. Processes without a projection yet (created
+ * before it existed) get one built on first read.
+ */
+@Service
+@Slf4j
+public class KycStatusService {
+
+    private final KycProcessRepository kycProcessRepository;
+    private final KycStatusViewRepository kycStatusViewRepository;
+    private final KycStatusMapper kycStatusMapper;
+    private final LoadingCache<String, KycStatusView> cache;
+    private final int maxBatchSize;
+
+    public KycStatusService(KycProcessRepository kycProcessRepository,
+                            KycStatusViewRepository kycStatusViewRepository,
+                            KycStatusMapper kycStatusMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${kyc.status-cache.maximum-size:100000}") long maximumSize,
+                            @Value("${kyc.status-cache.ttl:60s}") Duration ttl,
+                            @Value("${kyc.status-batch.max-items:5000}") int maxBatchSize) {
+        this.kycProcessRepository = kycProcessRepository;
+        this.kycStatusViewRepository = kycStatusViewRepository;
+        this.kycStatusMapper = kycStatusMapper;
+        this.maxBatchSize = maxBatchSize;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(this::load);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "kycStatus");
+    }
+
+    public KycStatusResponse getStatus(String kycId) {
+        return kycStatusMapper.toStatusResponse(cache.get(kycId));
+    }
+
+    /**
+     * Resolves many statuses at once: cached entries first, then the rest with
+     * one $in query on the projection, and any still missing with one $in query
+     * on the processes (building their projection as a single read would).
+     * Unknown ids are absent from the result.
+     */
+    public Map<String, KycStatusResponse> getStatuses(Collection<String> kycIds) {
+        if (kycIds.size() > maxBatchSize) {
+            throw new RuntimeException("Too many KYC ids: at most " + maxBatchSize + " per request");
+        }
+        Set<String> ids = new LinkedHashSet<>(kycIds);
+        ids.remove(null);
+        Map<String, KycStatusView> views = new HashMap<>(cache.getAllPresent(ids));
+
+        Set<String> missing = new LinkedHashSet<>(ids);
+        missing.removeAll(views.keySet());
+        if (!missing.isEmpty()) {
+            for (KycStatusView view : kycStatusViewRepository.findAllById(missing)) {
+                views.put(view.getKycId(), view);
+                cache.asMap().merge(view.getKycId(), view, KycStatusService::newer);
+            }
+            missing.removeAll(views.keySet());
+        }
+        if (!missing.isEmpty()) {
+            for (KycProcess process : kycProcessRepository.findStatusFieldsIn(missing)) {
+                KycStatusView view = kycStatusMapper.toStatusView(process);
+                kycStatusViewRepository.saveIfNewer(view);
+                views.put(view.getKycId(), view);
+                cache.asMap().merge(view.getKycId(), view, KycStatusService::newer);
+            }
+        }
+
+        Map<String, KycStatusResponse> statuses = new LinkedHashMap<>();
+        for (String kycId : ids) {
+            KycStatusView view = views.get(kycId);
+            if (view != null) {
+                statuses.put(kycId, kycStatusMapper.toStatusResponse(view));
+            }
+        }
+        return statuses;
+    }
+
+    /**
+     * Rebuilds the projection from the current process document after a state
+     * change and returns the new status, or null if the process no longer exists.
+     */
+    public KycStatusResponse refresh(String kycId) {
+        KycProcess process = kycProcessRepository.findStatusFields(kycId);
+        if (process == null) {
+            evict(kycId);
+            return null;
+        }
+
+        KycStatusView view = kycStatusMapper.toStatusView(process);
+        if (kycStatusViewRepository.saveIfNewer(view)) {
+            cache.asMap().merge(kycId, view, KycStatusService::newer);
+        } else {
+            cache.invalidate(kycId);
+        }
+        return kycStatusMapper.toStatusResponse(view);
+    }
+
+    public void evict(String kycId) {
+        cache.invalidate(kycId);
+        kycStatusViewRepository.deleteById(kycId);
+    }
+
+    private KycStatusView load(String kycId) {
+        return kycStatusViewRepository.findById(kycId).orElseGet(() -> {
+            KycProcess process = kycProcessRepository.findStatusFields(kycId);
+            if (process == null) {
+                throw new RuntimeException("KYC process not found: " + kycId);
+            }
+            KycStatusView view = kycStatusMapper.toStatusView(process);
+            kycStatusViewRepository.saveIfNewer(view);
+            log.debug("Built status projection for KYC {}", kycId);
+            return view;
+        });
+    }
+
+    private static KycStatusView newer(KycStatusView current, KycStatusView candidate) {
+        long currentVersion = current.getProcessVersion() != null ? current.getProcessVersion() : 0L;
+        long candidateVersion = candidate.getProcessVersion() != null ? candidate.getProcessVersion() : 0L;
+        return candidateVersion >= currentVersion ? candidate : current;
+    }
+}
@@ -0,0 +1,199 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.dto.KycStatusResponse;
+import org.example.model.KycProcess;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pushes KYC status changes to subscribed clients over Server-Sent Events.
+ * Subscriptions are async servlet requests, so an idle subscriber holds no
+ * thread. The workflow engine calls {@link #publish} with the refreshed status
+ * after every state transition, and the stream is closed once the KYC reaches
+ * a final state.
+ * <p>
+ * Callers never write to a socket: each subscriber keeps only the latest
+ * undelivered status, and a drain task on statusStreamExecutor sends it. A
+ * slow client therefore delays nobody but itself, and falls behind by
+ * skipping intermediate statuses rather than queueing them.
+ */
+@Service
+@Slf4j
+public class KycStatusStreamService {
+
+    private static final String STATUS_EVENT = "status";
+
+    private final KycStatusService kycStatusService;
+    private final Executor executor;
+    private final long emitterTimeout;
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    public KycStatusStreamService(KycStatusService kycStatusService, MeterRegistry meterRegistry,
+                                  @Qualifier("statusStreamExecutor") Executor executor,
+                                  @Value("${kyc.status-stream.timeout:1800000}") long emitterTimeout) {
+        this.kycStatusService = kycStatusService;
+        this.executor = executor;
+        this.emitterTimeout = emitterTimeout;
+        meterRegistry.gauge("kyc.status.stream.subscribers", subscriberCount);
+    }
+
+    /**
+     * Opens a status stream for the KYC. The current status is sent right away.
+     */
+    public SseEmitter subscribe(String kycId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeout);
+        Subscriber subscriber = new Subscriber(kycId, emitter);
+        // Register before reading so a transition racing with the read is still pushed
+        subscribers.compute(kycId, (id, set) -> {
+            Set<Subscriber> current = set != null ? set : new CopyOnWriteArraySet<>();
+            current.add(subscriber);
+            return current;
+        });
+        subscriberCount.incrementAndGet();
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> remove(subscriber));
+
+        KycStatusResponse status;
+        try {
+            status = kycStatusService.getStatus(kycId);
+        } catch (RuntimeException e) {
+            remove(subscriber);
+            throw e;
+        }
+        // A status published meanwhile is newer than the one just read
+        subscriber.offerInitial(status);
+        return emitter;
+    }
+
+    public void publish(String kycId, KycStatusResponse status) {
+        Set<Subscriber> current = subscribers.get(kycId);
+        if (current == null) {
+            return;
+        }
+        for (Subscriber subscriber : current) {
+            subscriber.offer(status);
+        }
+    }
+
+    /**
+     * Keeps idle streams alive through proxies and drops clients that went away.
+     */
+    @Scheduled(fixedDelayString = "${kyc.status-stream.heartbeat-interval:15000}")
+    public void heartbeat() {
+        subscribers.values().forEach(set -> set.forEach(Subscriber::heartbeat));
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribers.computeIfPresent(subscriber.kycId, (id, set) -> {
+            if (set.remove(subscriber)) {
+                subscriberCount.decrementAndGet();
+            }
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private static boolean isFinal(KycStatusResponse status) {
+        return KycProcess.KycStatus.COMPLETED.name().equals(status.getStatus())
+                || KycProcess.KycStatus.FAILED.name().equals(status.getStatus());
+    }
+
+    /**
+     * One open stream. At most one drain task per subscriber is queued or
+     * running at a time, so its events are written in order.
+     */
+    private final class Subscriber {
+        private final String kycId;
+        private final SseEmitter emitter;
+        private final AtomicReference<KycStatusResponse> pendingStatus = new AtomicReference<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean heartbeatPending;
+        private volatile boolean closed;
+
+        private Subscriber(String kycId, SseEmitter emitter) {
+            this.kycId = kycId;
+            this.emitter = emitter;
+        }
+
+        void offer(KycStatusResponse status) {
+            pendingStatus.set(status);
+            schedule();
+        }
+
+        void offerInitial(KycStatusResponse status) {
+            pendingStatus.compareAndSet(null, status);
+            schedule();
+        }
+
+        void heartbeat() {
+            heartbeatPending = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (closed || !scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Retried by the next publish or heartbeat; only the latest status matters
+                scheduled.set(false);
+                log.debug("Status stream pool saturated, delaying push for KYC {}", kycId);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (!closed) {
+                    KycStatusResponse status = pendingStatus.getAndSet(null);
+                    if (status != null) {
+                        if (send(SseEmitter.event().name(STATUS_EVENT).data(status)) && isFinal(status)) {
+                            closed = true;
+                            emitter.complete();
+                        }
+                    } else if (heartbeatPending) {
+                        heartbeatPending = false;
+                        send(SseEmitter.event().comment("keep-alive"));
+                    } else {
+                        break;
+                    }
+                }
+            } finally {
+                scheduled.set(false);
+                if (!closed && (pendingStatus.get() != null || heartbeatPending)) {
+                    schedule();
+                }
+            }
+        }
+
+        private boolean send(SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping status subscriber for KYC {}: {}", kycId, e.toString());
+                remove(this);
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the deadline of every in-flight workflow node on a single hashed
+ * timer wheel. Scheduling and cancelling are O(1) and one thread serves all
+ * pending deadlines, so hundreds of thousands of outstanding vendor tasks cost
+ * little more than their map entries.
+ * <p>
+ * Expiry callbacks run on the wheel thread and must hand real work off to
+ * another executor.
+ */
+@Component
+@Slf4j
+public class NodeTimeoutScheduler implements DisposableBean {
+
+    private final HashedWheelTimer timer;
+    private final ConcurrentMap<String, Timeout> timeouts = new ConcurrentHashMap<>();
+
+    public NodeTimeoutScheduler(MeterRegistry meterRegistry,
+                                @Value("${workflow.node-timeout.tick-duration:100}") long tickMillis,
+                                @Value("${workflow.node-timeout.wheel-size:1024}") int wheelSize) {
+        this.timer = new HashedWheelTimer(
+                runnable -> {
+                    Thread thread = new Thread(runnable, "kyc-node-timeout");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                tickMillis, TimeUnit.MILLISECONDS, wheelSize);
+        meterRegistry.gauge("workflow.node.timeouts.pending", timer, HashedWheelTimer::pendingTimeouts);
+    }
+
+    public void schedule(String taskId, long timeoutMillis, Runnable onExpiry) {
+        Timeout timeout = timer.newTimeout(expired -> {
+            if (timeouts.remove(taskId, expired)) {
+                onExpiry.run();
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+
+        Timeout previous = timeouts.put(taskId, timeout);
+        if (previous != null) {
+            previous.cancel();
+        }
+        if (timeout.isExpired() && timeouts.remove(taskId, timeout)) {
+            onExpiry.run();
+        }
+    }
+
+    public void cancel(String taskId) {
+        Timeout timeout = timeouts.remove(taskId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        int unfired = timer.stop().size();
+        if (unfired > 0) {
+            log.info("Node timeout scheduler stopped with {} pending deadlines", unfired);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Local stand-in for an S3-compatible object store: objects live in a bucket
+ * directory under a key prefix, a put uploads a complete copy that becomes
+ * visible atomically, and no local path is exposed, so callers exercise the
+ * same streaming code paths they would against a real bucket.
+ */
+@Component
+@ConditionalOnProperty(name = "file.storage.type", havingValue = "object")
+@Slf4j
+public class ObjectStoreImageStorage implements ImageStorage {
+
+    private final Path bucketPath;
+    private final String keyPrefix;
+
+    public ObjectStoreImageStorage(@Value("${file.storage.object.root:object-store/}") String root,
+                                   @Value("${file.storage.object.bucket:kyc-images}") String bucket,
+                                   @Value("${file.storage.object.key-prefix:images}") String keyPrefix) {
+        this.bucketPath = Paths.get(root).resolve(bucket);
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        Path target = objectPath(key);
+        Files.createDirectories(target.getParent());
+        Path upload = target.resolveSibling("." + UUID.randomUUID() + ".upload");
+        try {
+            Files.copy(source, upload);
+            Files.move(upload, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+        Files.delete(source);
+        log.debug("Put object {}/{}", keyPrefix, key);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(objectPath(key));
+    }
+
+    @Override
+    public long size(String key) throws IOException {
+        return Files.size(objectPath(key));
+    }
+
+    @Override
+    public SeekableByteChannel open(String key) throws IOException {
+        Path path = objectPath(key);
+        if (!Files.exists(path)) {
+            throw new NoSuchFileException(keyPrefix + "/" + key);
+        }
+        return Files.newByteChannel(path);
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(objectPath(key));
+    }
+
+    private Path objectPath(String key) {
+        return bucketPath.resolve(keyPrefix).resolve(ImageStorage.checkKey(key));
+    }
+}
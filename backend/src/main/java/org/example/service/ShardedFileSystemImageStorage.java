@@ -0,0 +1,87 @@
+package org.example.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * Keeps images on the local filesystem under two levels of hash-prefix
+ * directories ({@code ab/cd/abcd...jpg}), so no single directory grows to
+ * millions of entries. Files from the old flat layout are still found at the
+ * top level.
+ */
+@Component
+@ConditionalOnProperty(name = "file.storage.type", havingValue = "filesystem", matchIfMissing = true)
+@Slf4j
+public class ShardedFileSystemImageStorage implements ImageStorage {
+
+    private final Path root;
+
+    public ShardedFileSystemImageStorage(@Value("${file.upload.path:uploads/}") String uploadDir) {
+        this.root = Paths.get(uploadDir);
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        Path target = shardedPath(key);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(resolve(key));
+    }
+
+    @Override
+    public long size(String key) throws IOException {
+        return Files.size(resolve(key));
+    }
+
+    @Override
+    public SeekableByteChannel open(String key) throws IOException {
+        return Files.newByteChannel(resolve(key));
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        Path path = resolve(key);
+        return Files.exists(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    private Path resolve(String key) {
+        Path sharded = shardedPath(key);
+        if (Files.exists(sharded)) {
+            return sharded;
+        }
+        Path legacy = root.resolve(key);
+        return Files.exists(legacy) ? legacy : sharded;
+    }
+
+    private Path shardedPath(String key) {
+        ImageStorage.checkKey(key);
+        if (key.length() < 5) {
+            return root.resolve(key);
+        }
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+}
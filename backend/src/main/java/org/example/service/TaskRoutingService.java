@@ -0,0 +1,75 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.example.model.TaskRoute;
+import org.example.repository.TaskRouteRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Routes vendor taskIds back to the KYC process and workflow node that issued
+ * them. Routes live in the small task_routes collection (keyed by taskId) and
+ * are fronted by a bounded in-memory map, so callbacks never have to search
+ * the embedded workflowNodes array of kyc_processes.
+ */
+@Service
+@Slf4j
+public class TaskRoutingService {
+
+    private final TaskRouteRepository taskRouteRepository;
+    private final Cache<String, TaskRoute> routes;
+
+    public TaskRoutingService(TaskRouteRepository taskRouteRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${workflow.task-routing.cache-size:100000}") long cacheSize) {
+        this.taskRouteRepository = taskRouteRepository;
+        this.routes = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, routes, "taskRoutes");
+    }
+
+    public void register(String taskId, String kycId, String nodeId) {
+        TaskRoute route = new TaskRoute();
+        route.setTaskId(taskId);
+        route.setKycId(kycId);
+        route.setNodeId(nodeId);
+        route.setCreatedTime(LocalDateTime.now());
+
+        taskRouteRepository.save(route);
+        routes.put(taskId, route);
+    }
+
+    public Optional<TaskRoute> resolve(String taskId) {
+        TaskRoute route = routes.getIfPresent(taskId);
+        if (route != null) {
+            return Optional.of(route);
+        }
+
+        Optional<TaskRoute> stored = taskRouteRepository.findById(taskId);
+        stored.ifPresent(found -> routes.put(taskId, found));
+        return stored;
+    }
+
+    public void release(String taskId) {
+        routes.invalidate(taskId);
+        taskRouteRepository.deleteById(taskId);
+    }
+
+    /**
+     * Drops every route of a KYC process, e.g. when it is deleted.
+     */
+    public void releaseAll(String kycId) {
+        routes.asMap().values().removeIf(route -> kycId.equals(route.getKycId()));
+        long deleted = taskRouteRepository.deleteByKycId(kycId);
+        log.debug("Released {} task routes of KYC {}", deleted, kycId);
+    }
+}
@@ -3,9 +3,11 @@ package org.example.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.dto.ThirdPartyCallbackRequest;
+import org.example.model.TaskRoute;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -13,6 +15,8 @@ import java.util.Map;
 public class ThirdPartyCallbackService {
 
     private final WorkflowService workflowService;
+    private final TaskRoutingService taskRoutingService;
+    private final KycSerialExecutor kycSerialExecutor;
 
     public void handleIdVerificationCallback(ThirdPartyCallbackRequest request) {
         log.info("Received ID verification callback for taskId: {}, result: {}", request.getTaskId(),
@@ -23,7 +27,7 @@ public class ThirdPartyCallbackService {
         if (request.getResult() != null && ((Map)request.getResult()).get("passed") instanceof Boolean) {
             success = (Boolean) ((Map)request.getResult()).get("passed");
         }
-        workflowService.handleNodeCompletion(request.getTaskId(), success, request.getResult());
+        dispatchCompletion(request.getTaskId(), success, request.getResult());
     }
 
     public void handleFaceVerificationCallback(ThirdPartyCallbackRequest request) {
@@ -35,6 +39,27 @@ public class ThirdPartyCallbackService {
         if (request.getResult() != null && ((Map)request.getResult()).get("passed") instanceof Boolean) {
             success = (Boolean) ((Map)request.getResult()).get("passed");
         }
-        workflowService.handleNodeCompletion(request.getTaskId(), success, request.getResult());
+        dispatchCompletion(request.getTaskId(), success, request.getResult());
+    }
+
+    public void handleDeepfakeDetectionCallback(ThirdPartyCallbackRequest request) {
+        log.info("Received deepfake detection callback for taskId: {}, result: {} ", request.getTaskId(),
+                request.getResult());
+
+        boolean success = false;
+        if (request.getResult() != null && ((Map)request.getResult()).get("passed") instanceof Boolean) {
+            success = (Boolean) ((Map)request.getResult()).get("passed");
+        }
+        dispatchCompletion(request.getTaskId(), success, request.getResult());
+    }
+
+    private void dispatchCompletion(String taskId, boolean success, Object result) {
+        Optional<TaskRoute> route = taskRoutingService.resolve(taskId);
+        if (!route.isPresent()) {
+            log.error("No task route found for taskId: {}", taskId);
+            return;
+        }
+        kycSerialExecutor.submit(route.get().getKycId(),
+                () -> workflowService.handleNodeCompletion(taskId, success, result));
     }
 }
\ No newline at end of file
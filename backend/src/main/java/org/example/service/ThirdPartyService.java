@@ -1,80 +1,216 @@
 package org.example.service;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import lombok.extern.slf4j.Slf4j;
+import org.example.config.ThirdPartyProperties;
+import org.example.config.VendorWebClients;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
+import javax.annotation.PreDestroy;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Sends verification requests to the third-party vendors. Each vendor call is
+ * retried with jittered exponential backoff and guarded by a per-vendor
+ * {@link VendorCircuitBreaker}, so a vendor outage fails dispatches quickly
+ * instead of piling up requests. A per-vendor {@link VendorBulkhead} bounds
+ * concurrency and request rate so bursts queue here rather than being
+ * throttled by the vendor. When batching is enabled, requests are coalesced per
+ * vendor by a {@link VendorBatcher} and sent to the vendor's bulk endpoint.
+ * The returned {@link Mono} errors once the request could not be delivered.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ThirdPartyService {
 
-    private final WebClient webClient = WebClient.builder().build();
-    
-    // Mock服务器URL配置
-    private final String idVerificationUrl = "http://localhost:9090/api/verification/id-card";
-    private final String faceVerificationUrl = "http://localhost:9090/api/verification/face";
-    private final String deepfakeDetectionUrl = "http://localhost:9090/api/verification/deepfake";
-    private final String callbackUrl = "http://localhost:8080/api/callback";
+    private static final String ID_VERIFICATION = "id-verification";
+    private static final String FACE_VERIFICATION = "face-verification";
+    private static final String DEEPFAKE_DETECTION = "deepfake-detection";
 
-    public void verifyIdCard(String filePath, String taskId) {
+    private final VendorWebClients vendorWebClients;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, VendorCircuitBreaker> circuitBreakers = new HashMap<>();
+    private final Map<String, VendorBulkhead> bulkheads = new HashMap<>();
+    private final Map<String, VendorBatcher> batchers = new HashMap<>();
+    private final Map<String, ThirdPartyProperties.ServiceProperties> services = new HashMap<>();
+    private final Retry retrySpec;
+    private final String callbackUrl;
+    private final String imageBaseUrl;
+
+    public ThirdPartyService(ThirdPartyProperties properties, VendorWebClients vendorWebClients,
+                             MeterRegistry meterRegistry) {
+        this.vendorWebClients = vendorWebClients;
+        this.meterRegistry = meterRegistry;
+        this.callbackUrl = properties.getCallback().getBaseUrl();
+        this.imageBaseUrl = properties.getImageBaseUrl();
+
+        ThirdPartyProperties.ResilienceProperties resilience = properties.getResilience();
+        this.retrySpec = Retry.backoff(resilience.getMaxRetries(), resilience.getInitialBackoff())
+                .maxBackoff(resilience.getMaxBackoff())
+                .jitter(0.5)
+                .filter(ThirdPartyService::isRetryable)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+
+        for (String vendor : new String[]{ID_VERIFICATION, FACE_VERIFICATION, DEEPFAKE_DETECTION}) {
+            ThirdPartyProperties.ServiceProperties service = properties.getService(vendor);
+            services.put(vendor, service);
+
+            VendorCircuitBreaker breaker = new VendorCircuitBreaker(
+                    vendor, resilience.getFailureThreshold(), resilience.getOpenDuration());
+            circuitBreakers.put(vendor, breaker);
+            meterRegistry.gauge("vendor.circuit.state", Tags.of("vendor", vendor),
+                    breaker, cb -> cb.getState().ordinal());
+
+            ThirdPartyProperties.BulkheadProperties bulkhead = service.getBulkhead();
+            bulkheads.put(vendor, new VendorBulkhead(vendor,
+                    bulkhead.getMaxInFlight(),
+                    bulkhead.getQueueCapacity(),
+                    bulkhead.getRate(),
+                    bulkhead.getBurst(),
+                    meterRegistry));
+
+            ThirdPartyProperties.BatchingProperties batching = properties.getBatching();
+            if (batching.isEnabled()) {
+                batchers.put(vendor, new VendorBatcher(vendor,
+                        batching.getMaxBatchSize(),
+                        batching.getMaxWait(),
+                        batching.getMaxConcurrentBatches(),
+                        (requests, priority) -> sendBatch(vendor, requests, priority),
+                        meterRegistry));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchers.values().forEach(VendorBatcher::dispose);
+    }
+
+    public Mono<String> verifyIdCard(String filePath, String taskId, int priority) {
         Map<String, Object> request = new HashMap<>();
         request.put("taskId", taskId);
-        request.put("imageUrl", "http://localhost:8080/api/admin/image/" + extractFileName(filePath));
+        request.put("imageUrl", imageBaseUrl + extractFileName(filePath));
         request.put("callbackUrl", callbackUrl + "/id-verification");
 
-        webClient.post()
-                .uri(idVerificationUrl)
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(request)
-                .retrieve()
-                .bodyToMono(String.class)
-                .doOnSuccess(response -> log.info("ID verification request sent successfully for taskId: {}", taskId))
-                .doOnError(error -> log.error("Error sending ID verification request for taskId: {}", taskId, error))
-                .subscribe();
+        return send(ID_VERIFICATION, request, taskId, priority);
     }
 
-    public void verifyFace(String faceImagePath, String idCardPath, String taskId) {
+    public Mono<String> verifyFace(String faceImagePath, String idCardPath, String taskId, int priority) {
         Map<String, Object> request = new HashMap<>();
         request.put("taskId", taskId);
-        request.put("imageUrl", "http://localhost:8080/api/admin/image/" + extractFileName(faceImagePath));
+        request.put("imageUrl", imageBaseUrl + extractFileName(faceImagePath));
         request.put("callbackUrl", callbackUrl + "/face-verification");
 
-        webClient.post()
-                .uri(faceVerificationUrl)
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(request)
-                .retrieve()
-                .bodyToMono(String.class)
-                .doOnSuccess(response -> log.info("Face verification request sent successfully for taskId: {}", taskId))
-                .doOnError(error -> log.error("Error sending face verification request for taskId: {}", taskId, error))
-                .subscribe();
+        return send(FACE_VERIFICATION, request, taskId, priority);
     }
 
-    public void detectDeepfake(String faceImagePath, String taskId) {
+    public Mono<String> detectDeepfake(String faceImagePath, String taskId, int priority) {
         Map<String, Object> request = new HashMap<>();
         request.put("taskId", taskId);
-        request.put("imageUrl", "http://localhost:8080/api/admin/image/" + extractFileName(faceImagePath));
+        request.put("imageUrl", imageBaseUrl + extractFileName(faceImagePath));
         request.put("callbackUrl", callbackUrl + "/deepfake-detection");
 
-        webClient.post()
-                .uri(deepfakeDetectionUrl)
+        return send(DEEPFAKE_DETECTION, request, taskId, priority);
+    }
+
+    private Mono<String> send(String vendor, Map<String, Object> request, String taskId, int priority) {
+        VendorCircuitBreaker breaker = circuitBreakers.get(vendor);
+        VendorBatcher batcher = batchers.get(vendor);
+
+        Mono<String> attempt;
+        if (batcher != null) {
+            attempt = Mono.defer(() -> breaker.allowsRequest()
+                    ? batcher.submit(request, priority)
+                    : Mono.error(new VendorCircuitBreaker.OpenException(vendor)));
+        } else {
+            ThirdPartyProperties.ServiceProperties service = services.get(vendor);
+            attempt = guarded(vendor, priority, vendorWebClients.get(vendor).post()
+                    .uri(service.getUrl())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(request)
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .timeout(service.getTimeout()));
+        }
+
+        return attempt
+                .doOnError(error -> log.warn("Error sending {} request for taskId: {}: {}",
+                        vendor, taskId, error.toString()))
+                .retryWhen(retrySpec)
+                .doOnSuccess(response -> log.info("{} request sent successfully for taskId: {}", vendor, taskId))
+                .doOnError(error -> log.error("Giving up on {} request for taskId: {}", vendor, taskId, error));
+    }
+
+    private Mono<List<Map<String, Object>>> sendBatch(String vendor, List<Map<String, Object>> requests, int priority) {
+        ThirdPartyProperties.ServiceProperties service = services.get(vendor);
+        String batchUrl = service.getBatchUrl() != null ? service.getBatchUrl() : service.getUrl() + "/batch";
+
+        return guarded(vendor, priority, vendorWebClients.get(vendor).post()
+                .uri(batchUrl)
                 .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(request)
+                .bodyValue(requests)
                 .retrieve()
-                .bodyToMono(String.class)
-                .doOnSuccess(response -> log.info("Deepfake detection request sent successfully for taskId: {}", taskId))
-                .doOnError(error -> log.error("Error sending deepfake detection request for taskId: {}", taskId, error))
-                .subscribe();
+                .bodyToMono(new ParameterizedTypeReference<List<Map<String, Object>>>() { })
+                .timeout(service.getTimeout()));
+    }
+
+    /**
+     * Runs one HTTP call to the vendor inside its bulkhead and circuit breaker.
+     */
+    private <T> Mono<T> guarded(String vendor, int priority, Mono<T> httpCall) {
+        VendorCircuitBreaker breaker = circuitBreakers.get(vendor);
+        VendorBulkhead bulkhead = bulkheads.get(vendor);
+
+        Mono<T> call = Mono.defer(() -> {
+            if (!breaker.tryAcquire()) {
+                return Mono.error(new VendorCircuitBreaker.OpenException(vendor));
+            }
+            return httpCall
+                    .doOnSuccess(response -> {
+                        breaker.onSuccess();
+                        meterRegistry.counter("vendor.requests", "vendor", vendor, "outcome", "success").increment();
+                    })
+                    .doOnError(error -> {
+                        breaker.onFailure();
+                        meterRegistry.counter("vendor.requests", "vendor", vendor, "outcome", "failure").increment();
+                    })
+                    .doOnCancel(breaker::onCancel);
+        });
+
+        return Mono.defer(() -> {
+            // Fail fast without taking a queue slot while the vendor is known to be down
+            if (!breaker.allowsRequest()) {
+                return Mono.error(new VendorCircuitBreaker.OpenException(vendor));
+            }
+            return bulkhead.execute(priority, call);
+        }).doOnError(error -> {
+            if (error instanceof VendorCircuitBreaker.OpenException || error instanceof VendorBulkhead.FullException) {
+                meterRegistry.counter("vendor.requests", "vendor", vendor, "outcome", "rejected").increment();
+            }
+        });
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        if (error instanceof VendorCircuitBreaker.OpenException) {
+            return false;
+        }
+        if (error instanceof WebClientResponseException) {
+            HttpStatus status = ((WebClientResponseException) error).getStatusCode();
+            return status.is5xxServerError() || status == HttpStatus.TOO_MANY_REQUESTS;
+        }
+        return true;
     }
 
     private String extractFileName(String filePath) {
         return filePath.substring(Math.max(filePath.lastIndexOf('\\'), filePath.lastIndexOf('/')) + 1);
     }
-}
\ No newline at end of file
+}
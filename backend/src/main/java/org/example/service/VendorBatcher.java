@@ -0,0 +1,205 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Collects verification requests for one vendor and submits them as bulk
+ * requests, flushing whenever maxBatchSize requests are waiting or maxWait has
+ * passed since the oldest one arrived. Each caller still gets its own
+ * {@link Mono}, completed from the vendor's per-task acknowledgement.
+ * <p>
+ * Requests wait in a queue that a single scheduler thread drains. A batch is
+ * only taken from the queue when one of the maxConcurrentBatches slots is free,
+ * so a slow vendor makes requests wait in the queue rather than overflowing a
+ * reactive buffer, and a failed batch only fails its own requests.
+ */
+@Slf4j
+public class VendorBatcher {
+
+    private final String vendor;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final int maxConcurrentBatches;
+    private final BiFunction<List<Map<String, Object>>, Integer, Mono<List<Map<String, Object>>>> batchSender;
+    private final DistributionSummary batchSizes;
+    private final Queue<Item> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Disposable.Composite inFlightBatches = Disposables.composite();
+    private final Disposable.Swap flushTimer = Disposables.swap();
+    private final Scheduler scheduler;
+    private volatile boolean disposed;
+
+    /**
+     * @param batchSender posts a batch at the given priority and emits the vendor's
+     *                    per-task responses, each carrying taskId and success
+     */
+    public VendorBatcher(String vendor, int maxBatchSize, Duration maxWait, int maxConcurrentBatches,
+                         BiFunction<List<Map<String, Object>>, Integer, Mono<List<Map<String, Object>>>> batchSender,
+                         MeterRegistry meterRegistry) {
+        this.vendor = vendor;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.maxConcurrentBatches = Math.max(1, maxConcurrentBatches);
+        this.batchSender = batchSender;
+        this.batchSizes = DistributionSummary.builder("vendor.batch.size")
+                .tag("vendor", vendor)
+                .register(meterRegistry);
+        meterRegistry.gauge("vendor.batch.queued", Tags.of("vendor", vendor), queued);
+        this.scheduler = Schedulers.newSingle("vendor-batcher-" + vendor, true);
+    }
+
+    public Mono<String> submit(Map<String, Object> request, int priority) {
+        return Mono.create(result -> {
+            if (disposed) {
+                result.error(shutDown());
+                return;
+            }
+            queue.add(new Item(request, priority, result, System.nanoTime()));
+            queued.incrementAndGet();
+            scheduleDrain();
+        });
+    }
+
+    /**
+     * Stops batching and fails every request that is still queued or in flight.
+     */
+    public void dispose() {
+        disposed = true;
+        flushTimer.dispose();
+        inFlightBatches.dispose();
+        scheduler.dispose();
+        failQueued(shutDown());
+    }
+
+    private void scheduleDrain() {
+        try {
+            scheduler.schedule(this::drain);
+        } catch (RejectedExecutionException e) {
+            failQueued(shutDown());
+        }
+    }
+
+    /**
+     * Sends every batch that is due while there are free slots, then arms the
+     * flush timer for the oldest request left waiting. Runs on the scheduler thread only.
+     */
+    private void drain() {
+        while (!disposed && inFlight.get() < maxConcurrentBatches && !queue.isEmpty()) {
+            Item oldest = queue.peek();
+            boolean due = queued.get() >= maxBatchSize || System.nanoTime() - oldest.getEnqueuedAt() >= maxWaitNanos;
+            if (!due) {
+                break;
+            }
+
+            List<Item> batch = new ArrayList<>(maxBatchSize);
+            Item item;
+            while (batch.size() < maxBatchSize && (item = queue.poll()) != null) {
+                queued.decrementAndGet();
+                batch.add(item);
+            }
+            send(batch);
+        }
+
+        if (!disposed && inFlight.get() < maxConcurrentBatches && !queue.isEmpty()) {
+            long wait = maxWaitNanos - (System.nanoTime() - queue.peek().getEnqueuedAt());
+            flushTimer.update(scheduler.schedule(this::drain, Math.max(wait, 0L), TimeUnit.NANOSECONDS));
+        }
+    }
+
+    private void send(List<Item> batch) {
+        inFlight.incrementAndGet();
+        Disposable.Swap batchSubscription = Disposables.swap();
+        inFlightBatches.add(batchSubscription);
+        batchSubscription.update(sendBatch(batch)
+                .doFinally(signal -> {
+                    inFlightBatches.remove(batchSubscription);
+                    inFlight.decrementAndGet();
+                    if (!disposed) {
+                        scheduleDrain();
+                    }
+                })
+                .subscribe(null, error -> {
+                    log.error("Unexpected failure sending {} batch", vendor, error);
+                    batch.forEach(item -> item.getResult().error(error));
+                }));
+    }
+
+    private Mono<Void> sendBatch(List<Item> items) {
+        batchSizes.record(items.size());
+        List<Map<String, Object>> requests = items.stream()
+                .map(Item::getRequest)
+                .collect(Collectors.toList());
+        int priority = items.stream().mapToInt(Item::getPriority).min().orElse(VendorBulkhead.PRIORITY_NORMAL);
+
+        return Mono.defer(() -> batchSender.apply(requests, priority))
+                .defaultIfEmpty(Collections.emptyList())
+                .doOnNext(responses -> complete(items, responses))
+                .doOnError(error -> {
+                    log.warn("Batch of {} {} requests failed: {}", items.size(), vendor, error.toString());
+                    items.forEach(item -> item.getResult().error(error));
+                })
+                .doOnCancel(() -> items.forEach(item -> item.getResult().error(shutDown())))
+                .onErrorResume(error -> Mono.empty())
+                .then();
+    }
+
+    private void failQueued(Throwable error) {
+        Item item;
+        while ((item = queue.poll()) != null) {
+            queued.decrementAndGet();
+            item.getResult().error(error);
+        }
+    }
+
+    private IllegalStateException shutDown() {
+        return new IllegalStateException("Batcher for vendor " + vendor + " is shut down");
+    }
+
+    private void complete(List<Item> items, List<Map<String, Object>> responses) {
+        Map<Object, Map<String, Object>> responsesByTaskId = responses.stream()
+                .filter(response -> response.get("taskId") != null)
+                .collect(Collectors.toMap(response -> response.get("taskId"), response -> response, (a, b) -> a));
+
+        for (Item item : items) {
+            Map<String, Object> response = responsesByTaskId.get(item.getRequest().get("taskId"));
+            if (response != null && Boolean.TRUE.equals(response.get("success"))) {
+                item.getResult().success(String.valueOf(response.get("message")));
+            } else {
+                item.getResult().error(new IllegalStateException(
+                        "Task " + item.getRequest().get("taskId") + " not accepted by vendor " + vendor));
+            }
+        }
+    }
+
+    @Value
+    private static class Item {
+        Map<String, Object> request;
+        int priority;
+        MonoSink<String> result;
+        long enqueuedAt;
+    }
+}
@@ -0,0 +1,164 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.Value;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the calls made to one verification vendor. At most maxInFlight calls
+ * run at once and calls start no faster than the token bucket allows; anything
+ * beyond that waits in a bounded priority queue (lower priority value first,
+ * FIFO within a priority) and is rejected once the queue is full.
+ */
+public class VendorBulkhead {
+
+    public static final int PRIORITY_HIGH = 0;
+    public static final int PRIORITY_NORMAL = 5;
+
+    private final String vendor;
+    private final int maxInFlight;
+    private final int queueCapacity;
+    private final double permitsPerNano;
+    private final double burst;
+    private final Timer waitTimer;
+
+    private final PriorityQueue<Waiter> queue = new PriorityQueue<>(
+            Comparator.comparingInt(Waiter::getPriority).thenComparingLong(Waiter::getSequence));
+    private long sequence;
+    private int inFlight;
+    private double tokens;
+    private long lastRefill = System.nanoTime();
+    private boolean drainScheduled;
+
+    public VendorBulkhead(String vendor, int maxInFlight, int queueCapacity, double permitsPerSecond, int burst,
+                          MeterRegistry meterRegistry) {
+        if (!(permitsPerSecond > 0) || burst < 1) {
+            throw new IllegalArgumentException("Invalid bulkhead rate for vendor " + vendor
+                    + ": rate must be > 0 and burst >= 1");
+        }
+        this.vendor = vendor;
+        this.maxInFlight = maxInFlight;
+        this.queueCapacity = queueCapacity;
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.tokens = this.burst;
+
+        Tags tags = Tags.of("vendor", vendor);
+        this.waitTimer = Timer.builder("vendor.bulkhead.wait")
+                .tags(tags)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        meterRegistry.gauge("vendor.bulkhead.queue.depth", tags, this, VendorBulkhead::getQueueDepth);
+        meterRegistry.gauge("vendor.bulkhead.in.flight", tags, this, VendorBulkhead::getInFlight);
+    }
+
+    public <T> Mono<T> execute(int priority, Mono<T> call) {
+        return Mono.create(sink -> {
+            Waiter waiter;
+            Disposable.Swap running = Disposables.swap();
+            synchronized (this) {
+                if (queue.size() >= queueCapacity) {
+                    sink.error(new FullException(vendor));
+                    return;
+                }
+                waiter = new Waiter(priority, sequence++, System.nanoTime(), () -> running.update(start(call, sink)));
+                queue.add(waiter);
+            }
+            // Cancelling either drops the queued call or disposes the one in flight
+            sink.onCancel(() -> {
+                synchronized (this) {
+                    queue.remove(waiter);
+                }
+                running.dispose();
+            });
+            drain();
+        });
+    }
+
+    public synchronized int getQueueDepth() {
+        return queue.size();
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private <T> Disposable start(Mono<T> call, MonoSink<T> sink) {
+        return call.doFinally(signal -> release())
+                .subscribe(sink::success, sink::error, sink::success);
+    }
+
+    private void release() {
+        synchronized (this) {
+            inFlight--;
+        }
+        drain();
+    }
+
+    private void drain() {
+        List<Waiter> ready = new ArrayList<>();
+        synchronized (this) {
+            refill();
+            while (!queue.isEmpty() && inFlight < maxInFlight) {
+                if (tokens < 1) {
+                    scheduleDrain((long) Math.ceil((1 - tokens) / permitsPerNano));
+                    break;
+                }
+                tokens -= 1;
+                inFlight++;
+                ready.add(queue.poll());
+            }
+        }
+
+        long now = System.nanoTime();
+        for (Waiter waiter : ready) {
+            waitTimer.record(now - waiter.getEnqueuedAt(), TimeUnit.NANOSECONDS);
+            waiter.getTask().run();
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+    }
+
+    private void scheduleDrain(long delayNanos) {
+        if (drainScheduled) {
+            return;
+        }
+        drainScheduled = true;
+        Schedulers.parallel().schedule(() -> {
+            synchronized (this) {
+                drainScheduled = false;
+            }
+            drain();
+        }, Math.max(delayNanos, 1), TimeUnit.NANOSECONDS);
+    }
+
+    @Value
+    private static class Waiter {
+        int priority;
+        long sequence;
+        long enqueuedAt;
+        Runnable task;
+    }
+
+    public static class FullException extends RuntimeException {
+        public FullException(String vendor) {
+            super("Bulkhead queue full for vendor: " + vendor);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.service;
+
+import java.time.Duration;
+
+/**
+ * Count-based circuit breaker guarding one verification vendor. The breaker
+ * opens after a run of consecutive failures, rejects calls while open, and
+ * after the open interval lets a single trial call through to decide whether
+ * to close again.
+ */
+public class VendorCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String vendor;
+    private final int failureThreshold;
+    private final long openDurationNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public VendorCircuitBreaker(String vendor, int failureThreshold, Duration openDuration) {
+        this.vendor = vendor;
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+    }
+
+    public synchronized boolean tryAcquire() {
+        halfOpenIfElapsed();
+
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Whether {@link #tryAcquire()} would currently let a call through, without
+     * taking the half-open trial. Like tryAcquire it moves an open breaker to
+     * half-open once the open interval has passed, so callers can fail fast
+     * before queueing and still see the breaker recover.
+     */
+    public synchronized boolean allowsRequest() {
+        halfOpenIfElapsed();
+        return state == State.CLOSED || (state == State.HALF_OPEN && !trialInFlight);
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        state = State.CLOSED;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Releases a call that was cancelled before the vendor answered. It says
+     * nothing about the vendor's health, so only the half-open trial is freed
+     * for the next caller.
+     */
+    public synchronized void onCancel() {
+        trialInFlight = false;
+    }
+
+    private void halfOpenIfElapsed() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openDurationNanos) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getVendor() {
+        return vendor;
+    }
+
+    public static class OpenException extends RuntimeException {
+        public OpenException(String vendor) {
+            super("Circuit breaker open for vendor: " + vendor);
+        }
+    }
+}
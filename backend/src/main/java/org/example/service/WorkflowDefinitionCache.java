@@ -0,0 +1,157 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.model.WorkflowConfig;
+import org.example.model.WorkflowPlan;
+import org.example.repository.WorkflowConfigRepository;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-process cache of compiled workflow definitions. Plans are keyed by
+ * workflowName/version; the active version per name is re-resolved whenever a
+ * {@link WorkflowConfig} is saved or deleted through this application and on a
+ * fixed refresh interval to pick up changes made elsewhere. The refresh also
+ * compares every cached plan with its current document and evicts plans whose
+ * name:version document was edited in place.
+ */
+@Component
+@Slf4j
+public class WorkflowDefinitionCache extends AbstractMongoEventListener<WorkflowConfig> {
+
+    private final WorkflowConfigRepository workflowConfigRepository;
+    private final ConcurrentMap<String, WorkflowPlan> plans = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, WorkflowConfig> sources = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> activeVersions = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+
+    public WorkflowDefinitionCache(WorkflowConfigRepository workflowConfigRepository, MeterRegistry meterRegistry) {
+        this.workflowConfigRepository = workflowConfigRepository;
+        this.hits = Counter.builder("workflow.definition.cache.requests")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("workflow.definition.cache.requests")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        meterRegistry.gauge("workflow.definition.cache.size", plans, ConcurrentMap::size);
+    }
+
+    public Optional<WorkflowPlan> getActivePlan(String workflowName) {
+        String version = activeVersions.get(workflowName);
+        if (version != null) {
+            WorkflowPlan plan = plans.get(planKey(workflowName, version));
+            if (plan != null) {
+                hits.increment();
+                return Optional.of(plan);
+            }
+        }
+
+        misses.increment();
+        return loadActivePlan(workflowName);
+    }
+
+    public Optional<WorkflowPlan> getPlan(String workflowName, String version) {
+        WorkflowPlan plan = plans.get(planKey(workflowName, version));
+        if (plan != null) {
+            hits.increment();
+            return Optional.of(plan);
+        }
+
+        misses.increment();
+        return workflowConfigRepository.findByWorkflowNameAndVersion(workflowName, version)
+                .map(this::compileAndCache);
+    }
+
+    @Scheduled(fixedDelayString = "${workflow.definition-cache.refresh-interval:60000}")
+    public void refresh() {
+        try {
+            evictModified();
+        } catch (Exception e) {
+            log.error("Failed to check cached workflow definitions for changes", e);
+        }
+        for (String workflowName : activeVersions.keySet()) {
+            try {
+                loadActivePlan(workflowName);
+            } catch (Exception e) {
+                log.error("Failed to refresh workflow definition: {}", workflowName, e);
+            }
+        }
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<WorkflowConfig> event) {
+        WorkflowConfig config = event.getSource();
+        evict(planKey(config.getWorkflowName(), config.getVersion()));
+        activeVersions.remove(config.getWorkflowName());
+        log.info("Workflow definition changed, evicted: {} v{}", config.getWorkflowName(), config.getVersion());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<WorkflowConfig> event) {
+        plans.clear();
+        sources.clear();
+        activeVersions.clear();
+        log.info("Workflow definition deleted, cache cleared");
+    }
+
+    private void evictModified() {
+        Set<String> workflowNames = new HashSet<>();
+        sources.values().forEach(config -> workflowNames.add(config.getWorkflowName()));
+        if (workflowNames.isEmpty()) {
+            return;
+        }
+
+        Map<String, WorkflowConfig> current = new HashMap<>();
+        for (WorkflowConfig config : workflowConfigRepository.findByWorkflowNameIn(workflowNames)) {
+            current.put(planKey(config.getWorkflowName(), config.getVersion()), config);
+        }
+        sources.forEach((key, cached) -> {
+            if (!cached.equals(current.get(key))) {
+                evict(key);
+                log.info("Workflow definition modified or removed, evicted: {}", key);
+            }
+        });
+    }
+
+    private void evict(String key) {
+        plans.remove(key);
+        sources.remove(key);
+    }
+
+    private Optional<WorkflowPlan> loadActivePlan(String workflowName) {
+        Optional<WorkflowPlan> plan = workflowConfigRepository.findByWorkflowNameAndIsActive(workflowName, true)
+                .map(this::compileAndCache);
+        if (plan.isPresent()) {
+            activeVersions.put(workflowName, plan.get().getVersion());
+        } else {
+            activeVersions.remove(workflowName);
+        }
+        return plan;
+    }
+
+    private WorkflowPlan compileAndCache(WorkflowConfig config) {
+        return plans.computeIfAbsent(planKey(config.getWorkflowName(), config.getVersion()), key -> {
+            log.info("Compiling workflow definition: {} v{}", config.getWorkflowName(), config.getVersion());
+            sources.put(key, config);
+            return WorkflowPlan.compile(config);
+        });
+    }
+
+    private static String planKey(String workflowName, String version) {
+        return workflowName + ":" + version;
+    }
+}
@@ -1,30 +1,53 @@
 package org.example.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.dto.KycStatusResponse;
 import org.example.model.KycProcess;
-import org.example.model.WorkflowConfig;
+import org.example.model.TaskRoute;
+import org.example.model.WorkflowPlan;
 import org.example.repository.KycProcessRepository;
-import org.example.repository.WorkflowConfigRepository;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class WorkflowService {
 
+    private static final String DEFAULT_WORKFLOW = "default_kyc";
+
     private final KycProcessRepository kycProcessRepository;
-    private final WorkflowConfigRepository workflowConfigRepository;
+    private final WorkflowDefinitionCache workflowDefinitionCache;
     private final ThirdPartyService thirdPartyService;
+    private final TaskRoutingService taskRoutingService;
+    private final KycSerialExecutor kycSerialExecutor;
+    private final NodeTimeoutScheduler nodeTimeoutScheduler;
+    private final KycStatusService kycStatusService;
+    private final KycStatusStreamService kycStatusStreamService;
+    private final KycStatsService kycStatsService;
+    private final KycRollupService kycRollupService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${workflow.node-timeout.max-retries:1}")
+    private int maxTimeoutRetries;
 
-    @Async
     public void startWorkflow(String kycId) {
+        kycSerialExecutor.submit(kycId, () -> runWorkflow(kycId));
+    }
+
+    private void runWorkflow(String kycId) {
         try {
             Optional<KycProcess> processOpt = kycProcessRepository.findById(kycId);
             if (!processOpt.isPresent()) {
@@ -33,126 +56,326 @@ public class WorkflowService {
             }
 
             KycProcess process = processOpt.get();
-            process.setStatus(KycProcess.KycStatus.IN_PROGRESS);
-            process.setUpdatedTime(LocalDateTime.now());
-
-            Optional<WorkflowConfig> configOpt = workflowConfigRepository
-                    .findByWorkflowNameAndIsActive("default_kyc", true);
+            Optional<WorkflowPlan> planOpt = workflowDefinitionCache.getActivePlan(DEFAULT_WORKFLOW);
             
-            if (!configOpt.isPresent()) {
+            if (!planOpt.isPresent()) {
                 log.error("Default workflow config not found");
-                process.setStatus(KycProcess.KycStatus.FAILED);
-                kycProcessRepository.save(process);
+                KycProcess.KycStatus previous = kycProcessRepository.updateStatus(kycId, KycProcess.KycStatus.FAILED);
+                kycStatsService.recordTransition(previous, KycProcess.KycStatus.FAILED);
+                // A re-run of a process that already finished once was counted then
+                if (previous != null && previous != KycProcess.KycStatus.FAILED && process.getCompletedTime() == null) {
+                    kycRollupService.recordFinished(KycProcess.KycStatus.FAILED, process.getCreatedTime(), LocalDateTime.now());
+                }
                 return;
             }
 
-            WorkflowConfig config = configOpt.get();
-            initializeWorkflowNodes(process, config);
-            executeNextNodes(process);
+            WorkflowPlan plan = planOpt.get();
+            initializeWorkflowNodes(process, plan);
+            executeNextNodes(process, plan);
             
         } catch (Exception e) {
             log.error("Error starting workflow for KYC: {}", kycId, e);
+        } finally {
+            statusChanged(kycId);
         }
     }
 
-    private void initializeWorkflowNodes(KycProcess process, WorkflowConfig config) {
-        List<KycProcess.WorkflowNode> nodes = config.getNodes().stream()
-                .map(nodeConfig -> {
+    private void initializeWorkflowNodes(KycProcess process, WorkflowPlan plan) {
+        List<KycProcess.WorkflowNode> nodes = plan.getNodes().stream()
+                .map(planNode -> {
                     KycProcess.WorkflowNode node = new KycProcess.WorkflowNode();
-                    node.setNodeId(nodeConfig.getNodeId());
-                    node.setNodeName(nodeConfig.getNodeName());
-                    node.setNodeType(KycProcess.NodeType.valueOf(nodeConfig.getNodeType()));
+                    node.setNodeId(planNode.getNodeId());
+                    node.setNodeName(planNode.getNodeName());
+                    node.setNodeType(planNode.getNodeType());
                     node.setStatus(KycProcess.NodeStatus.PENDING);
                     return node;
                 })
-                .collect(java.util.stream.Collectors.toList());
-        
+                .collect(Collectors.toList());
+
+        // A re-run replaces the nodes, so callbacks for the old tasks can no longer be routed
+        if (process.getWorkflowNodes() != null) {
+            process.getWorkflowNodes().stream()
+                    .map(KycProcess.WorkflowNode::getTaskId)
+                    .filter(Objects::nonNull)
+                    .forEach(taskRoutingService::release);
+        }
+
+        process.setStatus(KycProcess.KycStatus.IN_PROGRESS);
+        process.setWorkflowName(plan.getWorkflowName());
+        process.setWorkflowVersion(plan.getVersion());
         process.setWorkflowNodes(nodes);
-        kycProcessRepository.save(process);
+        process.setFinalResult(null);
+        KycProcess.KycStatus previous = kycProcessRepository.initializeWorkflow(
+                process.getId(), plan.getWorkflowName(), plan.getVersion(), nodes);
+        kycStatsService.recordTransition(previous, KycProcess.KycStatus.IN_PROGRESS);
     }
 
-    private void executeNextNodes(KycProcess process) {
-        List<KycProcess.WorkflowNode> pendingNodes = process.getWorkflowNodes().stream()
+    /**
+     * Dispatches every pending node whose predecessors have completed and whose
+     * required inputs are present. Vendor calls are non-blocking, so all nodes
+     * dispatched in one pass are in flight concurrently.
+     */
+    private void executeNextNodes(KycProcess process, WorkflowPlan plan) {
+        Map<String, KycProcess.NodeStatus> statuses = process.getWorkflowNodes().stream()
+                .collect(Collectors.toMap(KycProcess.WorkflowNode::getNodeId, KycProcess.WorkflowNode::getStatus));
+
+        List<KycProcess.WorkflowNode> readyNodes = process.getWorkflowNodes().stream()
                 .filter(node -> node.getStatus() == KycProcess.NodeStatus.PENDING)
-                .collect(java.util.stream.Collectors.toList());
+                .filter(node -> canExecuteNode(process, plan, statuses, node))
+                .collect(Collectors.toList());
 
-        for (KycProcess.WorkflowNode node : pendingNodes) {
-            if (canExecuteNode(process, node)) {
-                executeNode(process, node);
-            }
+        for (KycProcess.WorkflowNode node : readyNodes) {
+            executeNode(process, plan.getNode(node.getNodeId()), node);
         }
     }
 
-    private boolean canExecuteNode(KycProcess process, KycProcess.WorkflowNode node) {
-        switch (node.getNodeType()) {
-            case ID_VERIFICATION:
-                return process.getIdCardInfo() != null && 
-                       process.getIdCardInfo().getFilePath() != null;
-            case FACE_VERIFICATION:
-                return process.getFaceInfo() != null && 
-                       process.getFaceInfo().getFilePath() != null &&
-                       process.getIdCardInfo() != null &&
+    private boolean canExecuteNode(KycProcess process, WorkflowPlan plan,
+                                   Map<String, KycProcess.NodeStatus> statuses, KycProcess.WorkflowNode node) {
+        WorkflowPlan.Node planNode = plan.getNode(node.getNodeId());
+        if (planNode == null) {
+            log.error("Node {} of KYC {} is not defined in workflow {} v{}",
+                    node.getNodeId(), process.getId(), plan.getWorkflowName(), plan.getVersion());
+            return false;
+        }
+
+        boolean predecessorsCompleted = plan.getPredecessors(node.getNodeId()).stream()
+                .allMatch(predecessor -> statuses.get(predecessor) == KycProcess.NodeStatus.COMPLETED);
+        return predecessorsCompleted && planNode.getRequiredInputs().stream()
+                .allMatch(input -> isInputAvailable(process, input));
+    }
+
+    private boolean isInputAvailable(KycProcess process, String input) {
+        switch (input) {
+            case "idCardImage":
+                return process.getIdCardInfo() != null &&
                        process.getIdCardInfo().getFilePath() != null;
+            case "faceImage":
+                return process.getFaceInfo() != null &&
+                       process.getFaceInfo().getFilePath() != null;
             default:
-                return true;
+                log.warn("Unknown workflow input {} for KYC {}", input, process.getId());
+                return false;
         }
     }
 
-    private void executeNode(KycProcess process, KycProcess.WorkflowNode node) {
+    /**
+     * The image sent to vendors: the normalized variant when one was produced, else the original.
+     */
+    private static String vendorImage(KycProcess.IdCardInfo info) {
+        return info.getNormalizedFilePath() != null ? info.getNormalizedFilePath() : info.getFilePath();
+    }
+
+    private static String vendorImage(KycProcess.FaceInfo info) {
+        return info.getNormalizedFilePath() != null ? info.getNormalizedFilePath() : info.getFilePath();
+    }
+
+    private void executeNode(KycProcess process, WorkflowPlan.Node planNode, KycProcess.WorkflowNode node) {
+        String taskId = UUID.randomUUID().toString();
+        LocalDateTime startTime = LocalDateTime.now();
+        if (!kycProcessRepository.markNodeStarted(process.getId(), node.getNodeId(), taskId, startTime)) {
+            log.warn("Node {} of KYC {} is no longer pending, skipping dispatch", node.getNodeId(), process.getId());
+            return;
+        }
+
         node.setStatus(KycProcess.NodeStatus.IN_PROGRESS);
-        node.setStartTime(LocalDateTime.now());
-        node.setTaskId(UUID.randomUUID().toString());
-        
-        kycProcessRepository.save(process);
+        node.setStartTime(startTime);
+        node.setTaskId(taskId);
+        dispatchNode(process, node, planNode.getTimeout());
+    }
+
+    private void dispatchNode(KycProcess process, KycProcess.WorkflowNode node, Integer timeoutMillis) {
+        String kycId = process.getId();
+        String nodeId = node.getNodeId();
+        String taskId = node.getTaskId();
+        taskRoutingService.register(taskId, kycId, nodeId);
+        if (timeoutMillis != null && timeoutMillis > 0) {
+            nodeTimeoutScheduler.schedule(taskId, timeoutMillis,
+                    () -> kycSerialExecutor.submit(kycId, () -> handleNodeTimeout(kycId, nodeId, taskId)));
+        }
 
+        int priority = node.getAttempts() != null && node.getAttempts() > 1
+                ? VendorBulkhead.PRIORITY_HIGH : VendorBulkhead.PRIORITY_NORMAL;
+        Mono<String> request;
         switch (node.getNodeType()) {
             case ID_VERIFICATION:
-                thirdPartyService.verifyIdCard(process.getIdCardInfo().getFilePath(), node.getTaskId());
+                request = thirdPartyService.verifyIdCard(vendorImage(process.getIdCardInfo()), taskId, priority);
                 break;
             case FACE_VERIFICATION:
-                thirdPartyService.verifyFace(
-                    process.getFaceInfo().getFilePath(), 
-                    process.getIdCardInfo().getFilePath(), 
-                    node.getTaskId()
+                request = thirdPartyService.verifyFace(
+                    vendorImage(process.getFaceInfo()),
+                    vendorImage(process.getIdCardInfo()),
+                    taskId,
+                    priority
                 );
                 break;
             case DEEPFAKE_DETECTION:
-                thirdPartyService.detectDeepfake(process.getFaceInfo().getFilePath(), node.getTaskId());
+                request = thirdPartyService.detectDeepfake(vendorImage(process.getFaceInfo()), taskId, priority);
                 break;
+            default:
+                throw new IllegalStateException("Unsupported node type: " + node.getNodeType());
+        }
+
+        request.subscribe(
+                response -> { },
+                error -> kycSerialExecutor.submit(kycId,
+                        () -> handleDispatchFailure(kycId, nodeId, taskId, error)));
+    }
+
+    private void handleDispatchFailure(String kycId, String nodeId, String taskId, Throwable error) {
+        nodeTimeoutScheduler.cancel(taskId);
+        if (failNode(kycId, nodeId, taskId, "Verification service unavailable: " + error.getMessage())) {
+            log.error("Node {} of KYC {} could not be dispatched, failing KYC", nodeId, kycId);
+            statusChanged(kycId);
         }
     }
 
     public void handleNodeCompletion(String taskId, boolean success, Object result) {
-        KycProcess process = kycProcessRepository.findByTaskId(taskId);
+        Optional<TaskRoute> routeOpt = taskRoutingService.resolve(taskId);
+        if (!routeOpt.isPresent()) {
+            log.error("No task route found for taskId: {}", taskId);
+            return;
+        }
+
+        nodeTimeoutScheduler.cancel(taskId);
+        TaskRoute route = routeOpt.get();
+        KycProcess.NodeStatus nodeStatus = success ? KycProcess.NodeStatus.COMPLETED : KycProcess.NodeStatus.FAILED;
+        KycProcess process = kycProcessRepository.markNodeFinished(
+                route.getKycId(), route.getNodeId(), taskId, nodeStatus, result);
         if (process == null) {
-            log.error("KYC process not found for taskId: {}", taskId);
+            log.warn("Ignoring callback for taskId: {}, node is not awaiting a result", taskId);
+            return;
+        }
+        taskRoutingService.release(taskId);
+        try {
+            continueWorkflow(process, success);
+        } finally {
+            statusChanged(process.getId());
+        }
+    }
+
+    private void continueWorkflow(KycProcess process, boolean success) {
+        if (process.getStatus() != KycProcess.KycStatus.IN_PROGRESS) {
+            log.info("KYC {} already finished with status {}, not scheduling further nodes",
+                    process.getId(), process.getStatus());
+            return;
+        }
+
+        if (success) {
+            Optional<WorkflowPlan> planOpt = resolvePlan(process);
+            if (!planOpt.isPresent()) {
+                log.error("Workflow {} v{} not found for KYC: {}",
+                        process.getWorkflowName(), process.getWorkflowVersion(), process.getId());
+                completeWorkflow(process.getId(), KycProcess.KycStatus.FAILED, null);
+                return;
+            }
+            executeNextNodes(process, planOpt.get());
+            checkWorkflowCompletion(process);
+        } else {
+            completeWorkflow(process.getId(), KycProcess.KycStatus.FAILED, null);
+        }
+    }
+
+    /**
+     * Called when a vendor has not answered within the node timeout. The node is
+     * re-dispatched under a new taskId until its retries are used up, after which
+     * it is failed and the KYC is failed with it.
+     */
+    private void handleNodeTimeout(String kycId, String nodeId, String taskId) {
+        Optional<KycProcess> processOpt = kycProcessRepository.findById(kycId);
+        if (!processOpt.isPresent()) {
             return;
         }
 
+        KycProcess process = processOpt.get();
         Optional<KycProcess.WorkflowNode> nodeOpt = process.getWorkflowNodes().stream()
-                .filter(node -> taskId.equals(node.getTaskId()))
+                .filter(node -> nodeId.equals(node.getNodeId()) && taskId.equals(node.getTaskId()))
+                .filter(node -> node.getStatus() == KycProcess.NodeStatus.IN_PROGRESS)
                 .findFirst();
-
         if (!nodeOpt.isPresent()) {
-            log.error("Node not found for taskId: {}", taskId);
             return;
         }
 
-        KycProcess.WorkflowNode node = nodeOpt.get();
-        node.setStatus(success ? KycProcess.NodeStatus.COMPLETED : KycProcess.NodeStatus.FAILED);
-        node.setEndTime(LocalDateTime.now());
-        node.setResult(result);
+        int attempts = nodeOpt.get().getAttempts() != null ? nodeOpt.get().getAttempts() : 1;
+        Optional<WorkflowPlan> planOpt = resolvePlan(process);
+        if (process.getStatus() == KycProcess.KycStatus.IN_PROGRESS && attempts <= maxTimeoutRetries
+                && planOpt.isPresent() && planOpt.get().getNode(nodeId) != null) {
+            String retryTaskId = UUID.randomUUID().toString();
+            KycProcess restarted = kycProcessRepository.restartNode(
+                    kycId, nodeId, taskId, retryTaskId, LocalDateTime.now());
+            if (restarted == null) {
+                return;
+            }
+            taskRoutingService.release(taskId);
+            meterRegistry.counter("workflow.node.timeouts", "action", "retried").increment();
+            log.warn("Node {} of KYC {} timed out (attempt {}), retrying as taskId: {}",
+                    nodeId, kycId, attempts, retryTaskId);
 
-        process.setUpdatedTime(LocalDateTime.now());
-        kycProcessRepository.save(process);
+            restarted.getWorkflowNodes().stream()
+                    .filter(node -> nodeId.equals(node.getNodeId()))
+                    .findFirst()
+                    .ifPresent(node -> dispatchNode(restarted, node, planOpt.get().getNode(nodeId).getTimeout()));
+            statusChanged(kycId);
+            return;
+        }
 
-        if (success) {
-            executeNextNodes(process);
-            checkWorkflowCompletion(process);
-        } else {
-            process.setStatus(KycProcess.KycStatus.FAILED);
-            kycProcessRepository.save(process);
+        if (failNode(kycId, nodeId, taskId, "Verification timed out")) {
+            meterRegistry.counter("workflow.node.timeouts", "action", "failed").increment();
+            log.error("Node {} of KYC {} timed out after {} attempts, failing KYC", nodeId, kycId, attempts);
+            statusChanged(kycId);
+        }
+    }
+
+    private boolean failNode(String kycId, String nodeId, String taskId, String reason) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("passed", false);
+        result.put("reason", reason);
+        KycProcess failed = kycProcessRepository.markNodeFinished(
+                kycId, nodeId, taskId, KycProcess.NodeStatus.FAILED, result);
+        if (failed == null) {
+            return false;
+        }
+        taskRoutingService.release(taskId);
+        completeWorkflow(kycId, KycProcess.KycStatus.FAILED, null);
+        return true;
+    }
+
+    /**
+     * Moves an in-progress process to its final status and, if it was still in
+     * progress, counts the transition in the status counters. Rollups only count
+     * the first time a process finishes, not the outcome of a later re-run.
+     */
+    private boolean completeWorkflow(String kycId, KycProcess.KycStatus status, KycProcess.FinalResult finalResult) {
+        LocalDateTime completedTime = LocalDateTime.now();
+        KycProcess previous = kycProcessRepository.completeWorkflow(kycId, status, finalResult, completedTime);
+        if (previous == null) {
+            return false;
+        }
+        kycStatsService.recordTransition(KycProcess.KycStatus.IN_PROGRESS, status);
+        if (previous.getCompletedTime() == null) {
+            kycRollupService.recordFinished(status, previous.getCreatedTime(), completedTime);
+        }
+        return true;
+    }
+
+    /**
+     * Brings the status projection up to date after a transition and pushes it to subscribers.
+     */
+    private void statusChanged(String kycId) {
+        try {
+            KycStatusResponse status = kycStatusService.refresh(kycId);
+            if (status != null) {
+                kycStatusStreamService.publish(kycId, status);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to update status projection for KYC {}", kycId, e);
+        }
+    }
+
+    private Optional<WorkflowPlan> resolvePlan(KycProcess process) {
+        if (process.getWorkflowName() == null || process.getWorkflowVersion() == null) {
+            return workflowDefinitionCache.getActivePlan(DEFAULT_WORKFLOW);
         }
+        return workflowDefinitionCache.getPlan(process.getWorkflowName(), process.getWorkflowVersion());
     }
 
     private void checkWorkflowCompletion(KycProcess process) {
@@ -162,7 +385,7 @@ public class WorkflowService {
         if (allCompleted) {
             process.setStatus(KycProcess.KycStatus.COMPLETED);
             calculateFinalResult(process);
-            kycProcessRepository.save(process);
+            completeWorkflow(process.getId(), process.getStatus(), process.getFinalResult());
         }
     }
 
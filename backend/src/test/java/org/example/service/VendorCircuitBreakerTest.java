@@ -0,0 +1,71 @@
+package org.example.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VendorCircuitBreakerTest {
+
+    private static final Duration OPEN_DURATION = Duration.ofMillis(50);
+
+    @Test
+    void rejectsWhileOpen() {
+        VendorCircuitBreaker breaker = openBreaker();
+
+        assertFalse(breaker.allowsRequest());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(VendorCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void letsOneTrialThroughAfterOpenDuration() throws InterruptedException {
+        VendorCircuitBreaker breaker = openBreaker();
+
+        Thread.sleep(OPEN_DURATION.toMillis() * 2);
+
+        assertTrue(breaker.allowsRequest());
+        assertEquals(VendorCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.allowsRequest());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.onSuccess();
+        assertEquals(VendorCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowsRequest());
+    }
+
+    @Test
+    void failedTrialReopens() throws InterruptedException {
+        VendorCircuitBreaker breaker = openBreaker();
+
+        Thread.sleep(OPEN_DURATION.toMillis() * 2);
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+
+        assertEquals(VendorCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowsRequest());
+    }
+
+    @Test
+    void cancelledTrialFreesTheTrialSlot() throws InterruptedException {
+        VendorCircuitBreaker breaker = openBreaker();
+
+        Thread.sleep(OPEN_DURATION.toMillis() * 2);
+        assertTrue(breaker.tryAcquire());
+        breaker.onCancel();
+
+        assertEquals(VendorCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    private static VendorCircuitBreaker openBreaker() {
+        VendorCircuitBreaker breaker = new VendorCircuitBreaker("vendor", 2, OPEN_DURATION);
+        breaker.onFailure();
+        breaker.onFailure();
+        return breaker;
+    }
+}
@@ -9,6 +9,10 @@ import org.example.mockserver.service.MockVerificationService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
 @RestController
 @RequestMapping("/api/verification")
 @RequiredArgsConstructor
@@ -58,4 +62,40 @@ public class MockVerificationController {
         
         return ResponseEntity.ok(response);
     }
+
+    @PostMapping("/id-card/batch")
+    public ResponseEntity<List<VerificationResponse>> verifyIdCardBatch(@RequestBody List<VerificationRequest> requests) {
+        log.info("Received ID card verification batch of {} requests", requests.size());
+        return ResponseEntity.ok(acceptBatch(requests, "ID card verification initiated",
+                verificationService::processIdCardVerification));
+    }
+
+    @PostMapping("/face/batch")
+    public ResponseEntity<List<VerificationResponse>> verifyFaceBatch(@RequestBody List<VerificationRequest> requests) {
+        log.info("Received face verification batch of {} requests", requests.size());
+        return ResponseEntity.ok(acceptBatch(requests, "Face verification initiated",
+                verificationService::processFaceVerification));
+    }
+
+    @PostMapping("/deepfake/batch")
+    public ResponseEntity<List<VerificationResponse>> detectDeepfakeBatch(@RequestBody List<VerificationRequest> requests) {
+        log.info("Received deepfake detection batch of {} requests", requests.size());
+        return ResponseEntity.ok(acceptBatch(requests, "Deepfake detection initiated",
+                verificationService::processDeepfakeDetection));
+    }
+
+    private List<VerificationResponse> acceptBatch(List<VerificationRequest> requests, String message,
+                                                   Consumer<VerificationRequest> processor) {
+        List<VerificationResponse> responses = new ArrayList<>();
+        for (VerificationRequest request : requests) {
+            VerificationResponse response = new VerificationResponse();
+            response.setTaskId(request.getTaskId());
+            response.setSuccess(true);
+            response.setMessage(message);
+            responses.add(response);
+
+            processor.accept(request);
+        }
+        return responses;
+    }
 }
\ No newline at end of file
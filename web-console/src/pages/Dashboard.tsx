@@ -1,5 +1,5 @@
 import React, { useEffect, useState } from 'react';
-import { Card, Row, Col, Statistic, Spin } from 'antd';
+import { Card, Row, Col, Statistic, Spin, Table } from 'antd';
 import {
   UserOutlined,
   CheckCircleOutlined,
@@ -7,23 +7,17 @@ import {
   ExclamationCircleOutlined,
 } from '@ant-design/icons';
 import { kycApi } from '../services/api';
-
-interface DashboardStats {
-  total: number;
-  pending: number;
-  inProgress: number;
-  completed: number;
-  failed: number;
-}
+import { KycRollupPoint, KycStats } from '../types';
 
 const Dashboard: React.FC = () => {
-  const [stats, setStats] = useState<DashboardStats>({
+  const [stats, setStats] = useState<KycStats>({
     total: 0,
     pending: 0,
     inProgress: 0,
     completed: 0,
     failed: 0,
   });
+  const [rollups, setRollups] = useState<KycRollupPoint[]>([]);
   const [loading, setLoading] = useState(true);
 
   useEffect(() => {
@@ -34,23 +28,14 @@ const Dashboard: React.FC = () => {
     try {
       setLoading(true);
       
-      // 分别获取各状态的统计数据
-      const [allResult, pendingResult, inProgressResult, completedResult, failedResult] = 
-        await Promise.all([
-          kycApi.getKycList({ page: 0, size: 1, status: 'ALL' }),
-          kycApi.getKycList({ page: 0, size: 1, status: 'PENDING' }),
-          kycApi.getKycList({ page: 0, size: 1, status: 'IN_PROGRESS' }),
-          kycApi.getKycList({ page: 0, size: 1, status: 'COMPLETED' }),
-          kycApi.getKycList({ page: 0, size: 1, status: 'FAILED' }),
-        ]);
-
-      setStats({
-        total: allResult.data.totalElements,
-        pending: pendingResult.data.totalElements,
-        inProgress: inProgressResult.data.totalElements,
-        completed: completedResult.data.totalElements,
-        failed: failedResult.data.totalElements,
-      });
+      // 各状态计数由后端统一维护，一次请求即可
+      const [statsResult, rollupResult] = await Promise.all([
+        kycApi.getStats(),
+        kycApi.getRollups({ granularity: 'DAY' }),
+      ]);
+      setStats(statsResult.data);
+      // 最近的日期排在前面
+      setRollups([...rollupResult.data].reverse().slice(0, 7));
     } catch (error) {
       console.error('Failed to load dashboard data:', error);
     } finally {
@@ -58,6 +43,36 @@ const Dashboard: React.FC = () => {
     }
   };
 
+  const formatLatency = (ms?: number) => {
+    if (ms === undefined || ms === null) return '-';
+    if (ms < 60000) return `${(ms / 1000).toFixed(1)} 秒`;
+    return `${(ms / 60000).toFixed(1)} 分钟`;
+  };
+
+  const rollupColumns = [
+    {
+      title: '日期',
+      dataIndex: 'bucketStart',
+      key: 'bucketStart',
+      render: (time: string) => new Date(time).toLocaleDateString(),
+    },
+    { title: '新建', dataIndex: 'created', key: 'created' },
+    { title: '完成', dataIndex: 'completed', key: 'completed' },
+    { title: '失败', dataIndex: 'failed', key: 'failed' },
+    {
+      title: '平均耗时',
+      dataIndex: 'averageLatencyMs',
+      key: 'averageLatencyMs',
+      render: formatLatency,
+    },
+    {
+      title: 'P95耗时(上界)',
+      dataIndex: 'p95LatencyMs',
+      key: 'p95LatencyMs',
+      render: formatLatency,
+    },
+  ];
+
   if (loading) {
     return (
       <div style={{ textAlign: 'center', padding: 50 }}>
@@ -135,6 +150,16 @@ const Dashboard: React.FC = () => {
         </Col>
       </Row>
 
+      <Card title="最近7天" style={{ marginTop: 24 }}>
+        <Table
+          columns={rollupColumns}
+          dataSource={rollups}
+          rowKey="bucketStart"
+          pagination={false}
+          size="small"
+        />
+      </Card>
+
       <Card title="系统状态" style={{ marginTop: 24 }}>
         <Row gutter={[16, 16]}>
           <Col span={24}>
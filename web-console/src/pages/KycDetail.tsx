@@ -17,7 +17,7 @@ import {
 } from 'antd';
 import { ArrowLeftOutlined, DeleteOutlined, ReloadOutlined } from '@ant-design/icons';
 import dayjs from 'dayjs';
-import { kycApi } from '../services/api';
+import { getImageUrl, kycApi } from '../services/api';
 import { KycProcess, WorkflowNode } from '../types';
 
 const KycDetail: React.FC = () => {
@@ -93,12 +93,6 @@ const KycDetail: React.FC = () => {
     return types[type as keyof typeof types] || type;
   };
 
-  const getImageUrl = (filePath: string) => {
-    if (!filePath) return undefined;
-    const filename = filePath.substring(filePath.lastIndexOf('\\') + 1).substring(filePath.lastIndexOf('/') + 1);
-    return `http://localhost:8080/api/admin/image/${filename}`;
-  };
-
   if (loading) {
     return (
       <div style={{ textAlign: 'center', padding: 50 }}>
@@ -198,7 +192,8 @@ const KycDetail: React.FC = () => {
                     <div style={{ marginTop: 8 }}>
                       <Image
                         width={200}
-                        src={getImageUrl(data.idCardInfo.filePath)}
+                        src={getImageUrl(data.idCardInfo.filePath, 'preview')}
+                        preview={{ src: getImageUrl(data.idCardInfo.filePath) }}
                         placeholder="加载中..."
                         fallback="data:image/png;base64,iVBORw0KGgoAAAANSUhEUgAAAMIAAADDCAYAAADQvc6UAAABRWlDQ1BJQ0MgUHJvZmlsZQAAKJFjYGASSSwoyGFhYGDIzSspCnJ3UoiIjFJgf8LAwSDCIMogwMCcmFxc4BgQ4ANUwgCjUcG3awyMIPqyLsis7PPOq3QdDFcvjV3jOD1boQVTPQrgSkktTgbSf4A4LbmgqISBgTEFyFYuLykAsTuAbJEioKOA7DkgdjqEvQHEToKwj4DVhAQ5A9k3gGyB5IxEoBmML4BsnSQk8XQkNtReEOBxcfXxUQg1Mjc0dyHgXNJBSWpFCYh2zi+oLMpMzyhRcASGUqqCZ16yno6CkYGRAQMDKMwhqj/fAIcloxgHQqxAjIHBEugw5sUIsSQpBobtQPdLciLEVJYzMPBHMDBsayhILEqEO4DxG0txmrERhM29nYGBddr//5/DGRjYNRkY/l7////39v///y4Dmn+LgeHANwDrkl1AuO+pmgAAADhlWElmTU0AKgAAAAgAAYdpAAQAAAABAAAAGgAAAAAAAqACAAQAAAABAAAAwqADAAQAAAABAAAAwwAAAAD9b/HnAAAHlklEQVR4Ae3dP3Ik1RUG8A8YCaG4lQqG4v1+CCgEFhQZQQyGgjKlYoYOQY6AGywCg4IDQ4ZMwhwYCWEwhgwZcpQOhgwMDhYZGhwSGRoYDgwNCgtBBJkGqhXNP3e3p1u1"
                       />
@@ -235,7 +230,8 @@ const KycDetail: React.FC = () => {
                     <div style={{ marginTop: 8 }}>
                       <Image
                         width={200}
-                        src={getImageUrl(data.faceInfo.filePath)}
+                        src={getImageUrl(data.faceInfo.filePath, 'preview')}
+                        preview={{ src: getImageUrl(data.faceInfo.filePath) }}
                         placeholder="加载中..."
                         fallback="data:image/png;base64,iVBORw0KGgoAAAANSUhEUgAAAMIAAADDCAYAAADQvc6UAAABRWlDQ1BJQ0MgUHJvZmlsZQAAKJFjYGASSSwoyGFhYGDIzSspCnJ3UoiIjFJgf8LAwSDCIMogwMCcmFxc4BgQ4ANUwgCjUcG3awyMIPqyLsis7PPOq3QdDFcvjV3jOD1boQVTPQrgSkktTgbSf4A4LbmgqISBgTEFyFYuLykAsTuAbJEioKOA7DkgdjqEvQHEToKwj4DVhAQ5A9k3gGyB5IxEoBmML4BsnSQk8XQkNtReEOBxcfXxUQg1Mjc0dyHgXNJBSWpFCYh2zi+oLMpMzyhRcASGUqqCZ16yno6CkYGRAQMDKMwhqj/fAIcloxgHQqxAjIHBEugw5sUIsSQpBobtQPdLciLEVJYzMPBHMDBsayhILEqEO4DxG0txmrERhM29nYGBddr//5/DGRjYNRkY/l7////39v///y4Dmn+LgeHANwDrkl1AuO+pmgAAADhlWElmTU0AKgAAAAgAAYdpAAQAAAABAAAAGgAAAAAAAqACAAQAAAABAAAAwqADAAQAAAABAAAAwwAAAAD9b/HnAAAHlklEQVR4Ae3dP3Ik1RUG8A8YCaG4lQqG4v1+CCgEFhQZQQyGgjKlYoYOQY6AGywCg4IDQ4ZMwhwYCWEwhgwZcpQOhgwMDhYZGhwSGRoYDgwNCgtBBJkGqhXNP3e3p1u1"
                       />
@@ -9,24 +9,26 @@ import {
   Popconfirm,
   message,
   Input,
+  Image,
 } from 'antd';
 import { DeleteOutlined, EyeOutlined, ReloadOutlined } from '@ant-design/icons';
 import { useNavigate } from 'react-router-dom';
 import dayjs from 'dayjs';
-import { kycApi } from '../services/api';
-import { KycProcess } from '../types';
+import { getImageUrl, kycApi } from '../services/api';
+import { KycSummary } from '../types';
 
 const { Search } = Input;
 
 const KycList: React.FC = () => {
   const navigate = useNavigate();
-  const [data, setData] = useState<KycProcess[]>([]);
+  const [data, setData] = useState<KycSummary[]>([]);
   const [loading, setLoading] = useState(false);
-  const [pagination, setPagination] = useState({
-    current: 1,
-    pageSize: 20,
-    total: 0,
-  });
+  const [pageSize, setPageSize] = useState(20);
+  // cursors[i] 为第 i 页的起始游标，第一页为 undefined
+  const [cursors, setCursors] = useState<(string | undefined)[]>([undefined]);
+  const [pageIndex, setPageIndex] = useState(0);
+  const [nextCursor, setNextCursor] = useState<string | undefined>();
+  const [total, setTotal] = useState<number | undefined>();
   const [statusFilter, setStatusFilter] = useState<string>('ALL');
 
   const columns = [
@@ -86,9 +88,15 @@ const KycList: React.FC = () => {
       title: '身份证',
       key: 'idCard',
       width: 80,
-      render: (record: KycProcess) => {
-        return record.idCardInfo ? 
-          <Tag color="green">已上传</Tag> : 
+      render: (record: KycSummary) => {
+        return record.idCardFilePath ? 
+          <Image
+            width={40}
+            height={40}
+            style={{ objectFit: 'cover' }}
+            src={getImageUrl(record.idCardFilePath, 'thumb')}
+            preview={{ src: getImageUrl(record.idCardFilePath, 'preview') }}
+          /> : 
           <Tag color="default">未上传</Tag>;
       },
     },
@@ -96,9 +104,15 @@ const KycList: React.FC = () => {
       title: '人脸照片',
       key: 'facePhoto',
       width: 80,
-      render: (record: KycProcess) => {
-        return record.faceInfo ? 
-          <Tag color="green">已上传</Tag> : 
+      render: (record: KycSummary) => {
+        return record.faceFilePath ? 
+          <Image
+            width={40}
+            height={40}
+            style={{ objectFit: 'cover' }}
+            src={getImageUrl(record.faceFilePath, 'thumb')}
+            preview={{ src: getImageUrl(record.faceFilePath, 'preview') }}
+          /> : 
           <Tag color="default">未上传</Tag>;
       },
     },
@@ -106,11 +120,11 @@ const KycList: React.FC = () => {
       title: '最终结果',
       key: 'finalResult',
       width: 100,
-      render: (record: KycProcess) => {
-        if (!record.finalResult) {
+      render: (record: KycSummary) => {
+        if (record.passed === undefined || record.passed === null) {
           return <Tag color="default">待定</Tag>;
         }
-        return record.finalResult.passed ? 
+        return record.passed ? 
           <Tag color="success">通过</Tag> : 
           <Tag color="error">未通过</Tag>;
       },
@@ -119,7 +133,7 @@ const KycList: React.FC = () => {
       title: '操作',
       key: 'actions',
       width: 150,
-      render: (record: KycProcess) => (
+      render: (record: KycSummary) => (
         <Space>
           <Button
             type="primary"
@@ -147,23 +161,24 @@ const KycList: React.FC = () => {
 
   useEffect(() => {
     loadData();
-  }, [pagination.current, pagination.pageSize, statusFilter]);
+  }, [pageIndex, pageSize, statusFilter]);
 
   const loadData = async () => {
     try {
       setLoading(true);
-      const response = await kycApi.getKycList({
-        page: pagination.current - 1,
-        size: pagination.pageSize,
+      const response = await kycApi.getKycListByCursor({
+        cursor: cursors[pageIndex],
+        size: pageSize,
         status: statusFilter,
+        includeTotal: pageIndex === 0,
       });
 
       if (response.success && response.data) {
-        setData(response.data.content || []);
-        setPagination(prev => ({
-          ...prev,
-          total: response.data.totalElements || 0,
-        }));
+        setData(response.data.items || []);
+        setNextCursor(response.data.hasMore ? response.data.nextCursor : undefined);
+        if (response.data.totalElements !== undefined && response.data.totalElements !== null) {
+          setTotal(response.data.totalElements);
+        }
       }
     } catch (error) {
       console.error('Failed to load KYC data:', error);
@@ -184,12 +199,31 @@ const KycList: React.FC = () => {
     }
   };
 
-  const handleTableChange = (newPagination: any) => {
-    setPagination({
-      ...pagination,
-      current: newPagination.current,
-      pageSize: newPagination.pageSize,
-    });
+  const resetPaging = () => {
+    setCursors([undefined]);
+    setPageIndex(0);
+  };
+
+  const handleStatusChange = (value: string) => {
+    resetPaging();
+    setStatusFilter(value);
+  };
+
+  const handlePageSizeChange = (value: number) => {
+    resetPaging();
+    setPageSize(value);
+  };
+
+  const handleNextPage = () => {
+    if (!nextCursor) return;
+    setCursors(prev => [...prev.slice(0, pageIndex + 1), nextCursor]);
+    setPageIndex(pageIndex + 1);
+  };
+
+  const handlePrevPage = () => {
+    if (pageIndex > 0) {
+      setPageIndex(pageIndex - 1);
+    }
   };
 
   return (
@@ -199,7 +233,7 @@ const KycList: React.FC = () => {
           <Space>
             <Select
               value={statusFilter}
-              onChange={setStatusFilter}
+              onChange={handleStatusChange}
               style={{ width: 120 }}
             >
               <Select.Option value="ALL">全部状态</Select.Option>
@@ -220,15 +254,28 @@ const KycList: React.FC = () => {
           dataSource={data}
           rowKey="id"
           loading={loading}
-          pagination={{
-            ...pagination,
-            showSizeChanger: true,
-            showQuickJumper: true,
-            showTotal: (total) => `共 ${total} 条记录`,
-          }}
-          onChange={handleTableChange}
+          pagination={false}
           scroll={{ x: 1200 }}
         />
+
+        <div style={{ marginTop: 16, display: 'flex', justifyContent: 'flex-end' }}>
+          <Space>
+            {total !== undefined && <span>共 {total} 条记录</span>}
+            <span>第 {pageIndex + 1} 页</span>
+            <Button onClick={handlePrevPage} disabled={pageIndex === 0 || loading}>
+              上一页
+            </Button>
+            <Button onClick={handleNextPage} disabled={!nextCursor || loading}>
+              下一页
+            </Button>
+            <Select value={pageSize} onChange={handlePageSizeChange} style={{ width: 110 }}>
+              <Select.Option value={10}>10 条/页</Select.Option>
+              <Select.Option value={20}>20 条/页</Select.Option>
+              <Select.Option value={50}>50 条/页</Select.Option>
+              <Select.Option value={100}>100 条/页</Select.Option>
+            </Select>
+          </Space>
+        </div>
       </Card>
     </div>
   );
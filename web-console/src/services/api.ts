@@ -1,6 +1,6 @@
 import axios from 'axios';
 import { message } from 'antd';
-import { ApiResponse, KycProcess, PageResult, KycListParams } from '../types';
+import { ApiResponse, CursorPage, KycCursorParams, KycProcess, KycRollupParams, KycRollupPoint, KycStats, KycSummary, PageResult, KycListParams } from '../types';
 
 const api = axios.create({
   baseURL: process.env.REACT_APP_API_BASE_URL || 'http://localhost:8080/api',
@@ -33,10 +33,25 @@ export const kycApi = {
   },
 
   // 获取KYC列表
-  getKycList: (params: KycListParams): Promise<ApiResponse<PageResult<KycProcess>>> => {
+  getKycList: (params: KycListParams): Promise<ApiResponse<PageResult<KycSummary>>> => {
     return api.get('/admin/kyc', { params }).then(res => res.data);
   },
 
+  // 按游标分页获取KYC列表（翻页开销与页码无关）
+  getKycListByCursor: (params: KycCursorParams): Promise<ApiResponse<CursorPage<KycSummary>>> => {
+    return api.get('/admin/kyc/cursor', { params }).then(res => res.data);
+  },
+
+  // 获取各状态统计
+  getStats: (): Promise<ApiResponse<KycStats>> => {
+    return api.get('/admin/stats').then(res => res.data);
+  },
+
+  // 获取按小时/按天汇总的吞吐量与耗时
+  getRollups: (params: KycRollupParams): Promise<ApiResponse<KycRollupPoint[]>> => {
+    return api.get('/admin/rollups', { params }).then(res => res.data);
+  },
+
   // 获取KYC详情
   getKycDetail: (kycId: string): Promise<ApiResponse<KycProcess>> => {
     return api.get(`/admin/kyc/${kycId}`).then(res => res.data);
@@ -48,4 +63,11 @@ export const kycApi = {
   },
 };
 
+// 图片地址，size 为 thumb（缩略图）、preview（预览图）或 original（原图）
+export const getImageUrl = (filePath: string | undefined, size: 'thumb' | 'preview' | 'original' = 'original') => {
+  if (!filePath) return undefined;
+  const filename = filePath.substring(Math.max(filePath.lastIndexOf('\\'), filePath.lastIndexOf('/')) + 1);
+  return `${api.defaults.baseURL}/admin/image/${encodeURIComponent(filename)}?size=${size}`;
+};
+
 export default api;
\ No newline at end of file
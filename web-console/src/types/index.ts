@@ -10,6 +10,18 @@ export interface KycProcess {
   finalResult?: FinalResult;
 }
 
+// 管理后台列表行，仅包含列表展示需要的字段
+export interface KycSummary {
+  id: string;
+  userId: string;
+  status: 'PENDING' | 'IN_PROGRESS' | 'COMPLETED' | 'FAILED';
+  createdTime: string;
+  updatedTime: string;
+  idCardFilePath?: string;
+  faceFilePath?: string;
+  passed?: boolean;
+}
+
 export interface IdCardInfo {
   fileName: string;
   filePath: string;
@@ -58,6 +70,44 @@ export interface PageResult<T> {
   number: number;
 }
 
+export interface KycStats {
+  total: number;
+  pending: number;
+  inProgress: number;
+  completed: number;
+  failed: number;
+}
+
+export interface KycRollupPoint {
+  bucketStart: string;
+  created: number;
+  completed: number;
+  failed: number;
+  averageLatencyMs?: number;
+  // 直方图分桶上界，非精确值
+  p95LatencyMs?: number;
+}
+
+export interface KycRollupParams {
+  granularity: 'HOUR' | 'DAY';
+  from?: string;
+  to?: string;
+}
+
+export interface CursorPage<T> {
+  items: T[];
+  nextCursor?: string;
+  hasMore: boolean;
+  totalElements?: number;
+}
+
+export interface KycCursorParams {
+  cursor?: string;
+  size: number;
+  status: string;
+  includeTotal?: boolean;
+}
+
 export interface KycListParams {
   page: number;
   size: number;